@@ -0,0 +1,388 @@
+/**
+ * 	Copyright (c) 2010 Philipp Giese
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.orm.androrm.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a <code>ModelAdapter</code> for each model class, that is
+ * compiled with this processor on the processor path. The adapter is 
+ * named like the model class with the suffix <code>$$ModelAdapter</code>
+ * and put into the same package, so that it can read the fields of the 
+ * model directly. <code>ModelAdapters</code> picks it up at runtime 
+ * instead of accessing the fields through reflection.
+ * <br /><br />
+ * No annotation is needed. All concrete subclasses of <code>Model</code>
+ * are handled. Just like at runtime, all fields, that are not private,
+ * and whose type is a database field or a relation, are part of the
+ * adapter. Fields of the class come first, followed by those of its 
+ * superclasses. 
+ * <br /><br />
+ * If a field can not be accessed from the package of the model, or its
+ * type does not tell, whether it holds a database field, no adapter is
+ * generated. The model then falls back to reflection. The same is true
+ * for classes, that already have an adapter of their own. 
+ * 
+ * @author Philipp Giese
+ */
+@SupportedAnnotationTypes("*")
+public class ModelAdapterProcessor extends AbstractProcessor {
+
+	private static final String MODEL = "com.orm.androrm.Model";
+	
+	/**
+	 * Has to match <code>ModelAdapters.SUFFIX</code>.
+	 */
+	private static final String SUFFIX = "$$ModelAdapter";
+	
+	/**
+	 * Types of the fields, that the ORM stores. See 
+	 * <code>DatabaseBuilder.isDatabaseField()</code>.
+	 */
+	private static final String[] FIELD_TYPES = {
+		"com.orm.androrm.DataField",
+		"com.orm.androrm.ForeignKeyField",
+		"com.orm.androrm.OneToOneField",
+		"com.orm.androrm.OneToManyField",
+		"com.orm.androrm.ManyToManyField"
+	};
+	
+	/**
+	 * A single field of the generated adapter.
+	 */
+	private static class ModelField {
+		
+		private String mName;
+		/**
+		 * Qualified name of the class, that declares the field.
+		 */
+		private String mDeclaringClass;
+	}
+	
+	/**
+	 * Classes, that adapters have been generated for. 
+	 */
+	private Set<String> mGenerated = new HashSet<String>();
+	
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+	
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		Elements elements = processingEnv.getElementUtils();
+		TypeElement model = elements.getTypeElement(MODEL);
+		
+		if(model == null) {
+			// the ORM is not on the class path
+			return false;
+		}
+		
+		List<TypeElement> types = new ArrayList<TypeElement>();
+		
+		for(TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+			collectTypes(type, types);
+		}
+		
+		for(TypeElement type : types) {
+			if(isModel(type, model) && !mGenerated.contains(type.getQualifiedName().toString())) {
+				mGenerated.add(type.getQualifiedName().toString());
+				
+				generate(type, model);
+			}
+		}
+		
+		// other processors may still be interested in the annotations
+		return false;
+	}
+	
+	private void collectTypes(TypeElement type, List<TypeElement> types) {
+		types.add(type);
+		
+		for(TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+			collectTypes(nested, types);
+		}
+	}
+	
+	/**
+	 * @return <code>true</code> if the type is a concrete model class, 
+	 * 			that an adapter can refer to.
+	 */
+	private boolean isModel(TypeElement type, TypeElement model) {
+		Types types = processingEnv.getTypeUtils();
+		
+		if(type.getKind() != ElementKind.CLASS
+			|| type.getModifiers().contains(Modifier.ABSTRACT)
+			|| !type.getTypeParameters().isEmpty()
+			|| !types.isSubtype(types.erasure(type.asType()), types.erasure(model.asType()))) {
+			
+			return false;
+		}
+		
+		for(Element e = type; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+			if(e.getModifiers().contains(Modifier.PRIVATE)) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	private void generate(TypeElement type, TypeElement model) {
+		Elements elements = processingEnv.getElementUtils();
+		PackageElement pkg = elements.getPackageOf(type);
+		String packageName = pkg.getQualifiedName().toString();
+		
+		String binaryName = elements.getBinaryName(type).toString();
+		String adapterName = binaryName.substring(packageName.length() == 0 ? 0 : packageName.length() + 1) + SUFFIX;
+		String qualifiedAdapterName = binaryName + SUFFIX;
+		
+		if(elements.getTypeElement(qualifiedAdapterName) != null) {
+			// the model provides an adapter of its own
+			return;
+		}
+		
+		List<ModelField> fields = getFields(type, model, pkg);
+		
+		if(fields == null) {
+			return;
+		}
+		
+		try {
+			Writer writer = processingEnv.getFiler().createSourceFile(qualifiedAdapterName, type).openWriter();
+			
+			try {
+				writer.write(getSource(packageName, adapterName, type.getQualifiedName().toString(), fields));
+			} finally {
+				writer.close();
+			}
+		} catch(IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, 
+					"could not write " + qualifiedAdapterName + ": " + e.getMessage(), type);
+		}
+	}
+	
+	/**
+	 * Collects all database fields of the class and its superclasses.
+	 * 
+	 * @return The fields or <code>null</code> if the adapter can not
+	 * 			access all of them.
+	 */
+	private List<ModelField> getFields(TypeElement type, TypeElement model, PackageElement pkg) {
+		Elements elements = processingEnv.getElementUtils();
+		Types types = processingEnv.getTypeUtils();
+		List<ModelField> fields = new ArrayList<ModelField>();
+		
+		for(TypeElement current = type; current != null && !current.equals(model); current = getSuperclass(current)) {
+			boolean samePackage = elements.getPackageOf(current).equals(pkg);
+			
+			for(VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+				Set<Modifier> modifiers = field.getModifiers();
+				
+				if(modifiers.contains(Modifier.PRIVATE)) {
+					continue;
+				}
+				
+				TypeMirror fieldType = types.erasure(field.asType());
+				
+				if(!isDatabaseField(fieldType)) {
+					if(mayHoldDatabaseField(fieldType)) {
+						skip(type, "the type of " + field.getSimpleName() + " does not tell, whether it is a database field");
+						
+						return null;
+					}
+					
+					continue;
+				}
+				
+				if(modifiers.contains(Modifier.STATIC)
+					|| (!samePackage && !modifiers.contains(Modifier.PUBLIC))) {
+					
+					skip(type, field.getSimpleName() + " can not be accessed from the adapter");
+					
+					return null;
+				}
+				
+				ModelField f = new ModelField();
+				f.mName = field.getSimpleName().toString();
+				f.mDeclaringClass = current.getQualifiedName().toString();
+				
+				fields.add(f);
+			}
+		}
+		
+		return fields;
+	}
+	
+	private TypeElement getSuperclass(TypeElement type) {
+		TypeMirror superclass = type.getSuperclass();
+		
+		if(superclass.getKind() != TypeKind.DECLARED) {
+			return null;
+		}
+		
+		return (TypeElement) ((DeclaredType) superclass).asElement();
+	}
+	
+	private boolean isDatabaseField(TypeMirror type) {
+		Types types = processingEnv.getTypeUtils();
+		
+		for(TypeMirror fieldType : getFieldTypes()) {
+			if(types.isSubtype(type, fieldType)) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * @return <code>true</code> if a database field can be assigned
+	 * 			to a field of the given type, e.g. {@link Object}.
+	 */
+	private boolean mayHoldDatabaseField(TypeMirror type) {
+		Types types = processingEnv.getTypeUtils();
+		
+		for(TypeMirror fieldType : getFieldTypes()) {
+			if(types.isAssignable(fieldType, type)) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	private List<TypeMirror> getFieldTypes() {
+		Elements elements = processingEnv.getElementUtils();
+		Types types = processingEnv.getTypeUtils();
+		List<TypeMirror> fieldTypes = new ArrayList<TypeMirror>();
+		
+		for(String name : FIELD_TYPES) {
+			TypeElement element = elements.getTypeElement(name);
+			
+			if(element != null) {
+				fieldTypes.add(types.erasure(element.asType()));
+			}
+		}
+		
+		return fieldTypes;
+	}
+	
+	private void skip(TypeElement type, String reason) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, 
+				"no adapter generated for " + type.getQualifiedName() + ", " + reason + ".", type);
+	}
+	
+	private String getSource(String packageName, String adapterName, String modelName, List<ModelField> fields) {
+		StringBuilder source = new StringBuilder();
+		
+		if(packageName.length() != 0) {
+			source.append("package ").append(packageName).append(";\n\n");
+		}
+		
+		source.append("import com.orm.androrm.AndrormField;\n")
+			  .append("import com.orm.androrm.Model;\n")
+			  .append("import com.orm.androrm.ModelAdapter;\n\n")
+			  .append("/**\n")
+			  .append(" * Generated by ").append(getClass().getName()).append(". Do not edit.\n")
+			  .append(" */\n")
+			  .append("public final class ").append(adapterName)
+			  .append(" implements ModelAdapter<").append(modelName).append("> {\n\n");
+		
+		source.append("\tprivate static final String[] FIELD_NAMES = {");
+		
+		for(int i = 0, size = fields.size(); i < size; i++) {
+			source.append(i == 0 ? " " : ", ")
+				  .append('"').append(fields.get(i).mName).append('"');
+		}
+		
+		source.append(" };\n\n");
+		
+		source.append("\t@Override\n")
+			  .append("\tpublic Class<? extends Model> getDeclaringClass(int index) {\n")
+			  .append("\t\tswitch(index) {\n");
+		
+		for(int i = 0, size = fields.size(); i < size; i++) {
+			source.append("\t\tcase ").append(i).append(":\n")
+				  .append("\t\t\treturn ").append(fields.get(i).mDeclaringClass).append(".class;\n");
+		}
+		
+		source.append("\t\t}\n\n")
+			  .append("\t\treturn null;\n")
+			  .append("\t}\n\n");
+		
+		source.append("\t@Override\n")
+			  .append("\tpublic AndrormField getField(").append(modelName).append(" model, int index) {\n")
+			  .append("\t\tswitch(index) {\n");
+		
+		for(int i = 0, size = fields.size(); i < size; i++) {
+			ModelField field = fields.get(i);
+			
+			source.append("\t\tcase ").append(i).append(":\n");
+			
+			if(field.mDeclaringClass.equals(modelName)) {
+				source.append("\t\t\treturn model.").append(field.mName).append(";\n");
+			} else {
+				// the cast also reaches fields, that are hidden by a subclass
+				source.append("\t\t\treturn ((").append(field.mDeclaringClass).append(") model).")
+					  .append(field.mName).append(";\n");
+			}
+		}
+		
+		source.append("\t\t}\n\n")
+			  .append("\t\treturn null;\n")
+			  .append("\t}\n\n");
+		
+		source.append("\t@Override\n")
+			  .append("\tpublic String[] getFieldNames() {\n")
+			  .append("\t\treturn FIELD_NAMES;\n")
+			  .append("\t}\n")
+			  .append("}\n");
+		
+		return source.toString();
+	}
+}
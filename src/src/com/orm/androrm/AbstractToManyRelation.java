@@ -35,21 +35,51 @@ implements XToManyRelation<O, T> {
 	protected List<T> mValues;
 	protected Class<O> mOriginClass;
 	protected Class<T> mTargetClass;
+	/**
+	 * Set, if values have been added, that have not been
+	 * saved yet. 
+	 */
+	private boolean mDirty;
 	
 	@Override
 	public void add(T value) {
 		if(value != null) {
 			mValues.add(value);
+			mDirty = true;
 		}
 	}
 	
 	@Override
 	public void addAll(Collection<T> values) {
-		if(values != null) {
+		if(values != null && !values.isEmpty()) {
 			mValues.addAll(values);
+			mDirty = true;
 		}
 	}
 	
+	/**
+	 * @return <code>true</code> if values have been added since 
+	 * 			the relation has been saved the last time.
+	 */
+	public boolean isDirty() {
+		return mDirty;
+	}
+	
+	/**
+	 * Marks the relation as saved. Values, that have not been saved 
+	 * themselves, could not be linked yet. As long as there are any,
+	 * the relation stays dirty. 
+	 */
+	protected void markClean() {
+		for(int i = 0, size = mValues.size(); i < size; i++) {
+			if(mValues.get(i).getId() == 0) {
+				return;
+			}
+		}
+		
+		mDirty = false;
+	}
+	
 	@Override
 	public Class<T> getTarget() {
 		return mTargetClass;
@@ -58,6 +88,7 @@ implements XToManyRelation<O, T> {
 	@Override
 	public void reset() {
 		mValues.clear();
+		mDirty = false;
 	}
 	
 	@Override
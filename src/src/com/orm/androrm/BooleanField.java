@@ -52,12 +52,22 @@ public class BooleanField extends DataField<Boolean>{
 	public void set(Cursor c, String fieldName) {
 		set(c.getInt(c.getColumnIndexOrThrow(fieldName)) == 1);
 	}
+	
+	@Override
+	protected void set(Cursor c, String fieldName, int[] columnIndices) {
+		set(c.getInt(columnIndices[0]) == 1);
+	}
 
 	private void setUp() {
 		mType = "integer";
 		mMaxLength = 1;
 	}
 
+	@Override
+	protected Object readColumn(Cursor c, int columnIndex) {
+		return c.getInt(columnIndex) == 1;
+	}
+	
 	@Override
 	public void reset() {
 		mValue = false;
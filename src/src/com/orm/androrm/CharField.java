@@ -68,6 +68,11 @@ public class CharField extends DataField<String> {
 	public void set(Cursor c, String fieldName) {
 		set(c.getString(c.getColumnIndexOrThrow(fieldName)));
 	}
+	
+	@Override
+	protected void set(Cursor c, String fieldName, int[] columnIndices) {
+		set(c.getString(columnIndices[0]));
+	}
 
 	@Override
 	public void reset() {
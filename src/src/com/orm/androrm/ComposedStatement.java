@@ -23,6 +23,7 @@
 package com.orm.androrm;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -65,6 +66,47 @@ public abstract class ComposedStatement extends Statement {
 		return keys;
 	}
 	
+	@Override
+	protected void collectTables(Set<String> tables) {
+		if(mLeft != null) {
+			mLeft.collectTables(tables);
+		}
+		
+		if(mRight != null) {
+			mRight.collectTables(tables);
+		}
+	}
+	
+	@Override
+	protected Statement qualify(String alias) {
+		ComposedStatement copy = (ComposedStatement) clone();
+		
+		if(mLeft != null) {
+			copy.mLeft = mLeft.qualify(alias);
+		}
+		
+		if(mRight != null) {
+			copy.mRight = mRight.qualify(alias);
+		}
+		
+		return copy;
+	}
+	
+	@Override
+	public String toSQL(List<String> args) {
+		if(mRight != null) {
+			String left = mLeft.toSQL(args);
+			
+			return left + mSeparator + mRight.toSQL(args);
+		}
+		
+		if(mLeft != null) {
+			return mLeft.toSQL(args);
+		}
+		
+		return super.toSQL(args);
+	}
+	
 	@Override
 	public String toString() {
 		if(mRight != null) {
@@ -0,0 +1,364 @@
+/**
+ * 	Copyright (c) 2010 Philipp Giese
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.orm.androrm;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import android.content.Context;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+/**
+ * Hands out one long-lived {@link SQLiteDatabase} per database name. 
+ * Opening a database is expensive, so instead of connecting for every 
+ * single statement all {@link DatabaseAdapter adapters} share the 
+ * connection managed here.
+ * <br /><br />
+ * Every {@link ConnectionManager#acquire(Context, String)} has to be paired
+ * with a {@link ConnectionManager#release(String)}. Releasing the last 
+ * reference does <b>NOT</b> close the connection. It stays open until
+ * {@link ConnectionManager#close(String)} or 
+ * {@link ConnectionManager#closeAll()} is called, which is typically done
+ * when the application shuts down. 
+ * 
+ * @author Philipp Giese
+ */
+public abstract class ConnectionManager {
+
+	private static final String TAG = "ANDRORM:CONNECTION:MANAGER";
+	
+	/**
+	 * State of a single database, that is shared among all 
+	 * {@link DatabaseAdapter adapters} using the same name.
+	 */
+	private static class Connection {
+		
+		private DatabaseHelper mHelper;
+		private SQLiteDatabase mDb;
+		/**
+		 * Number of {@link ConnectionManager#acquire(Context, String)} calls
+		 * that have not been released yet.
+		 */
+		private int mReferences;
+		/**
+		 * Set, if the connection should be closed as soon as
+		 * the last reference is released.
+		 */
+		private boolean mCloseRequested;
+		/**
+		 * Compiled statements of this connection.
+		 */
+		private StatementCache mStatements;
+		/**
+		 * Read-only connections, that are used in write-ahead log mode. 
+		 * Opened lazily. 
+		 */
+		private SQLiteDatabase[] mReaders;
+		/**
+		 * Compiled statements of each reader.
+		 */
+		private StatementCache[] mReaderStatements;
+		/**
+		 * Index of the reader, that will be handed out next.
+		 */
+		private int mNextReader;
+		
+		public Connection(Context context, String name) {
+			mHelper = new DatabaseHelper(context, name);
+			mStatements = new StatementCache();
+		}
+		
+		public void close() {
+			closeReaders();
+			
+			mStatements.clear();
+			mHelper.close();
+			mDb = null;
+		}
+		
+		private void closeReaders() {
+			if(mReaders == null) {
+				return;
+			}
+			
+			for(int i = 0; i < mReaders.length; i++) {
+				mReaderStatements[i].clear();
+				
+				if(mReaders[i] != null) {
+					mReaders[i].close();
+				}
+			}
+			
+			mReaders = null;
+			mReaderStatements = null;
+		}
+		
+		public SQLiteDatabase getReader() {
+			int count = DatabaseHelper.getReaderCount();
+			
+			if(!mHelper.isWriteAheadLogging() || count <= 0) {
+				return mDb;
+			}
+			
+			if(mReaders == null) {
+				mReaders = new SQLiteDatabase[count];
+				mReaderStatements = new StatementCache[count];
+				
+				for(int i = 0; i < count; i++) {
+					mReaderStatements[i] = new StatementCache();
+				}
+			}
+			
+			int index = mNextReader;
+			mNextReader = (mNextReader + 1) % mReaders.length;
+			
+			SQLiteDatabase reader = mReaders[index];
+			
+			if(reader == null || !reader.isOpen()) {
+				try {
+					reader = SQLiteDatabase.openDatabase(mDb.getPath(), null, SQLiteDatabase.OPEN_READONLY);
+				} catch(SQLException e) {
+					Log.w(TAG, "could not open reader for " + mDb.getPath() + ".", e);
+					
+					return mDb;
+				}
+				
+				mReaders[index] = reader;
+			}
+			
+			return reader;
+		}
+		
+		public StatementCache getStatementCache(SQLiteDatabase db) {
+			if(mReaders != null) {
+				for(int i = 0; i < mReaders.length; i++) {
+					if(mReaders[i] == db) {
+						return mReaderStatements[i];
+					}
+				}
+			}
+			
+			return mStatements;
+		}
+	}
+	
+	private static final Map<String, Connection> CONNECTIONS = new HashMap<String, Connection>();
+	
+	/**
+	 * Hands out the connection to the database with the given name and
+	 * opens it, if this has not happened yet. 
+	 * 
+	 * @param context	{@link Context} of the application.
+	 * @param name		Name of the database.
+	 * 
+	 * @return The shared {@link SQLiteDatabase}.
+	 * @throws SQLException
+	 */
+	public static synchronized SQLiteDatabase acquire(Context context, String name) throws SQLException {
+		Connection connection = getConnection(context, name);
+		
+		if(connection.mDb == null || !connection.mDb.isOpen()) {
+			connection.mDb = connection.mHelper.getWritableDatabase();
+		}
+		
+		connection.mReferences++;
+		connection.mCloseRequested = false;
+		
+		return connection.mDb;
+	}
+	
+	/**
+	 * Closes the connection to the given database. If it is still
+	 * in use, it will be closed once the last reference has been
+	 * released. 
+	 * 
+	 * @param name	Name of the database.
+	 */
+	public static synchronized void close(String name) {
+		Connection connection = CONNECTIONS.get(name);
+		
+		if(connection != null) {
+			if(connection.mReferences == 0) {
+				connection.close();
+				CONNECTIONS.remove(name);
+			} else {
+				connection.mCloseRequested = true;
+			}
+		}
+	}
+	
+	/**
+	 * Closes all connections. Connections, that are still in use
+	 * will be closed as soon as they are released.
+	 */
+	public static synchronized void closeAll() {
+		String[] names = CONNECTIONS.keySet().toArray(new String[CONNECTIONS.size()]);
+		
+		for(String name : names) {
+			close(name);
+		}
+	}
+	
+	private static Connection getConnection(Context context, String name) {
+		Connection connection = CONNECTIONS.get(name);
+		
+		if(connection == null) {
+			/*
+			 * The connection outlives single activities. Holding on to
+			 * their context would leak them.
+			 */
+			Context applicationContext = context.getApplicationContext();
+			
+			if(applicationContext == null) {
+				applicationContext = context;
+			}
+			
+			connection = new Connection(applicationContext, name);
+			CONNECTIONS.put(name, connection);
+		}
+		
+		return connection;
+	}
+	
+	/**
+	 * @param context	{@link Context} of the application.
+	 * @param name		Name of the database.
+	 * 
+	 * @return The {@link DatabaseHelper} of the given database.
+	 */
+	protected static synchronized DatabaseHelper getHelper(Context context, String name) {
+		return getConnection(context, name).mHelper;
+	}
+	
+	/**
+	 * @param context	{@link Context} of the application.
+	 * @param name		Name of the database.
+	 * 
+	 * @return The {@link StatementCache} of the given database.
+	 */
+	protected static synchronized StatementCache getStatementCache(Context context, String name) {
+		return getConnection(context, name).mStatements;
+	}
+	
+	/**
+	 * @param context	{@link Context} of the application.
+	 * @param name		Name of the database.
+	 * @param db		Writer or one of the readers of the database.
+	 * 
+	 * @return The {@link StatementCache} of the given connection.
+	 */
+	protected static synchronized StatementCache getStatementCache(Context context, String name, SQLiteDatabase db) {
+		return getConnection(context, name).getStatementCache(db);
+	}
+	
+	/**
+	 * Closes all compiled statements of the given database. This has
+	 * to be done whenever its schema changes. 
+	 * 
+	 * @param context	{@link Context} of the application.
+	 * @param name		Name of the database.
+	 */
+	protected static synchronized void clearStatementCaches(Context context, String name) {
+		Connection connection = getConnection(context, name);
+		connection.mStatements.clear();
+		
+		if(connection.mReaderStatements != null) {
+			for(StatementCache cache : connection.mReaderStatements) {
+				cache.clear();
+			}
+		}
+	}
+	
+	/**
+	 * Hands out a connection, that can be used for queries. If the 
+	 * database uses a write-ahead log, this is one of a pool of
+	 * read-only connections, which do not have to wait for the writer.
+	 * Otherwise the shared connection is returned. 
+	 * <br /><br />
+	 * A reference to the database has to be 
+	 * {@link ConnectionManager#acquire(Context, String) acquired} 
+	 * before and must be held as long as the reader is used. 
+	 * 
+	 * @param context	{@link Context} of the application.
+	 * @param name		Name of the database.
+	 * 
+	 * @return A {@link SQLiteDatabase} to read from.
+	 */
+	protected static synchronized SQLiteDatabase getReader(Context context, String name) {
+		return getConnection(context, name).getReader();
+	}
+	
+	/**
+	 * @param name	Name of the database.
+	 * @return	Number of references, that have not been released yet.
+	 */
+	public static synchronized int getReferenceCount(String name) {
+		Connection connection = CONNECTIONS.get(name);
+		
+		if(connection != null) {
+			return connection.mReferences;
+		}
+		
+		return 0;
+	}
+	
+	/**
+	 * @param name	Name of the database.
+	 * @return	<code>true</code> if the connection is currently open.
+	 */
+	public static synchronized boolean isOpen(String name) {
+		Connection connection = CONNECTIONS.get(name);
+		
+		return connection != null 
+			&& connection.mDb != null 
+			&& connection.mDb.isOpen();
+	}
+	
+	/**
+	 * Gives back a connection, that has been handed out by 
+	 * {@link ConnectionManager#acquire(Context, String)}.
+	 * 
+	 * @param name	Name of the database.
+	 */
+	public static synchronized void release(String name) {
+		Connection connection = CONNECTIONS.get(name);
+		
+		if(connection == null) {
+			return;
+		}
+		
+		if(connection.mReferences == 0) {
+			Log.w(TAG, "connection to " + name + " released more often than acquired.");
+			return;
+		}
+		
+		connection.mReferences--;
+		
+		if(connection.mReferences == 0 && connection.mCloseRequested) {
+			connection.close();
+			CONNECTIONS.remove(name);
+		}
+	}
+}
@@ -22,6 +22,8 @@
  */
 package com.orm.androrm;
 
+import android.database.Cursor;
+
 /**
  * This class is the superclass for all database fields,
  * that need a real field in the database. This for example 
@@ -46,12 +48,45 @@ public abstract class DataField<T> implements DatabaseField<T> {
 	 * Maximum length of that field.
 	 */
 	protected int mMaxLength;
+	/**
+	 * Set, if the value has not been loaded yet. 
+	 */
+	private FieldLoader mLoader;
+	/**
+	 * Set, if the value differs from the one stored in the 
+	 * database. New fields are always dirty. 
+	 */
+	private boolean mDirty = true;
+	
+	/**
+	 * Marks this field as not loaded. Its value will be read 
+	 * by the given loader on first access. 
+	 * 
+	 * @param loader	{@link FieldLoader} or <code>null</code> if the 
+	 * 					current value is valid.
+	 */
+	void defer(FieldLoader loader) {
+		mLoader = loader;
+	}
 	
 	@Override
 	public T get() {
+		loadDeferred();
+		
 		return mValue;
 	}
 	
+	/**
+	 * Names of the columns this field is stored in. Fields spanning
+	 * more than one column, have to override this method. 
+	 * 
+	 * @param fieldName	Name of the field.
+	 * @return Names of the table columns.
+	 */
+	protected String[] getColumnNames(String fieldName) {
+		return new String[] { fieldName };
+	}
+	
 	@Override
 	public String getDefinition(String fieldName) {
 		String definition = fieldName + " " + mType;
@@ -63,9 +98,128 @@ public abstract class DataField<T> implements DatabaseField<T> {
 		return definition;
 	}
 	
+	/**
+	 * Looks up the columns of this field in the given cursor. 
+	 * 
+	 * @param c			{@link Cursor} containing the data.
+	 * @param fieldName	Name of the field.
+	 * 
+	 * @return The index of each of the {@link DataField#getColumnNames(String) columns} 
+	 * 			or <code>null</code> if one of them is missing in the cursor.
+	 */
+	protected int[] getColumnIndices(Cursor c, String fieldName) {
+		String[] columns = getColumnNames(fieldName);
+		int[] indices = new int[columns.length];
+		
+		for(int i = 0; i < columns.length; i++) {
+			indices[i] = c.getColumnIndex(columns[i]);
+			
+			if(indices[i] == -1) {
+				return null;
+			}
+		}
+		
+		return indices;
+	}
+	
+	/**
+	 * Reads the value of one of the columns of this field without
+	 * assigning it. Fields, that are not stored as text have to 
+	 * override this method to return the correct type. 
+	 * 
+	 * @param c				{@link Cursor} pointing at data.
+	 * @param columnIndex	Index of the column in the cursor. 
+	 * 
+	 * @return The raw column value.
+	 */
+	protected Object readColumn(Cursor c, int columnIndex) {
+		return c.getString(columnIndex);
+	}
+	
+	/**
+	 * See {@link DataField#readColumn(Cursor, int)}. 
+	 * 
+	 * @return The raw column value or <code>null</code> if
+	 * 			the column is <code>NULL</code>.
+	 */
+	final Object readValue(Cursor c, int columnIndex) {
+		if(c.isNull(columnIndex)) {
+			return null;
+		}
+		
+		return readColumn(c, columnIndex);
+	}
+	
+	/**
+	 * @return <code>true</code> if the value of this field has
+	 * 			been changed since it has been loaded from or 
+	 * 			written to the database.
+	 */
+	public boolean isDirty() {
+		return mDirty;
+	}
+	
+	/**
+	 * @return <code>true</code> if the value of this field has
+	 * 			not been loaded from the database yet.
+	 */
+	public boolean isDeferred() {
+		return mLoader != null;
+	}
+	
+	/**
+	 * Loads the value of this field, if it has been left out
+	 * when the model was fetched. 
+	 */
+	protected void loadDeferred() {
+		if(mLoader != null) {
+			FieldLoader loader = mLoader;
+			mLoader = null;
+			
+			loader.load(this);
+		}
+	}
+	
+	/**
+	 * Marks the current value as the one stored in the database. 
+	 * Fields, whose values can be changed in place, should remember
+	 * enough of the value to detect such changes in 
+	 * {@link DataField#isDirty()}.
+	 */
+	protected void markClean() {
+		mDirty = false;
+	}
+	
+	/**
+	 * Marks the value as changed. Subclasses, that assign 
+	 * {@link DataField#mValue} directly, have to call this method.
+	 */
+	protected void markDirty() {
+		mDirty = true;
+	}
+	
+	/**
+	 * Reads the value of this field out of the {@link Cursor} using
+	 * column indices, that have been looked up before by 
+	 * {@link DataField#getColumnIndices(Cursor, String)}. This way the 
+	 * indices only have to be resolved once for all rows of a result. 
+	 * <br /><br />
+	 * Fields should override this method. By default the value is 
+	 * read by name using {@link DatabaseField#set(Cursor, String)}. 
+	 * 
+	 * @param c				{@link Cursor} pointing at data.
+	 * @param fieldName		Name of the field.
+	 * @param columnIndices	Indices of the columns of this field.
+	 */
+	protected void set(Cursor c, String fieldName, int[] columnIndices) {
+		set(c, fieldName);
+	}
+	
 	@Override
 	public void set(T value) {
+		mLoader = null;
 		mValue = value;
+		mDirty = true;
 	}
 	
 	@Override
@@ -22,14 +22,21 @@
  */
 package com.orm.androrm;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 
 /**
  * This class provides access to the underlying SQLite database. 
@@ -58,26 +65,267 @@ public class DatabaseAdapter {
 	}
 	
 	/**
-	 * {@link DatabaseAdapter.DatabaseHelper Database Helper} to deal with connecting to a SQLite database
-	 * and creating tables.
+	 * Number of open savepoints of the current thread. Savepoints
+	 * are used for transactions, that are nested into another one.
 	 */
-	private DatabaseHelper mDbHelper;
+	private static final ThreadLocal<Integer> SAVEPOINT_DEPTH = new ThreadLocal<Integer>() {
+		@Override
+		protected Integer initialValue() {
+			return 0;
+		}
+	};
+	
+	/**
+	 * Tables, that have been changed in the current transaction of 
+	 * this thread. 
+	 */
+	private static final ThreadLocal<Set<String>> CHANGED_TABLES = new ThreadLocal<Set<String>>() {
+		@Override
+		protected Set<String> initialValue() {
+			return new HashSet<String>();
+		}
+	};
+	
+	/**
+	 * Keys of the models, that have been removed from the {@link InstanceCache}
+	 * in the current transaction of this thread.
+	 */
+	private static final ThreadLocal<Set<String>> EVICTED_MODELS = new ThreadLocal<Set<String>>() {
+		@Override
+		protected Set<String> initialValue() {
+			return new HashSet<String>();
+		}
+	};
+	
+	/**
+	 * Tables, whose models have been removed from the {@link InstanceCache}
+	 * in the current transaction of this thread.
+	 */
+	private static final ThreadLocal<Set<String>> EVICTED_TABLES = new ThreadLocal<Set<String>>() {
+		@Override
+		protected Set<String> initialValue() {
+			return new HashSet<String>();
+		}
+	};
+	
+	/**
+	 * Models, that have been saved in the current transaction of 
+	 * this thread. They are marked as clean, once it is committed.
+	 */
+	private static final ThreadLocal<List<Model>> SAVED_MODELS = new ThreadLocal<List<Model>>() {
+		@Override
+		protected List<Model> initialValue() {
+			return new ArrayList<Model>();
+		}
+	};
+	
+	/**
+	 * Sequence number of the last delete from each table, including
+	 * the tables a delete may have cascaded to. 
+	 */
+	private static final Map<String, Integer> LAST_DELETES = new HashMap<String, Integer>();
+	private static int LAST_DROP = 0;
+	private static int DELETES = 0;
+	
+	/**
+	 * Counts a delete, that has removed or changed rows of the given
+	 * tables.
+	 * 
+	 * @param tables	Names of the tables. <code>null</code> for all tables.
+	 */
+	private static synchronized void countDelete(Collection<String> tables) {
+		DELETES++;
+		
+		if(tables == null) {
+			LAST_DROP = DELETES;
+			return;
+		}
+		
+		for(String table : tables) {
+			LAST_DELETES.put(table, DELETES);
+		}
+	}
+	
+	/**
+	 * A model only has to be written, if it has changed. That is, 
+	 * unless its row has been deleted in the meantime, which is 
+	 * the case, if this number has changed since it has been read.
+	 * 
+	 * @param table	Name of the table.
+	 * @return Sequence number of the last delete from the table.
+	 */
+	static synchronized int getLastDelete(String table) {
+		Integer last = LAST_DELETES.get(table);
+		
+		if(last == null || last < LAST_DROP) {
+			return LAST_DROP;
+		}
+		
+		return last;
+	}
+	
+	/**
+	 * Binds the values of the given columns to the placeholders of 
+	 * a compiled statement. The first column is bound to the first
+	 * placeholder and so on. 
+	 * 
+	 * @param statement	Compiled {@link SQLiteStatement}.
+	 * @param columns	Columns in the order of the placeholders.
+	 * @param values	{@link ContentValues} holding the values.
+	 */
+	protected static final void bind(SQLiteStatement statement, String[] columns, ContentValues values) {
+		statement.clearBindings();
+		
+		for(int i = 0, length = columns.length; i < length; i++) {
+			bind(statement, i + 1, values.get(columns[i]));
+		}
+	}
+	
+	private static final void bind(SQLiteStatement statement, int index, Object value) {
+		if(value == null) {
+			statement.bindNull(index);
+		} else if(value instanceof Double || value instanceof Float) {
+			statement.bindDouble(index, ((Number) value).doubleValue());
+		} else if(value instanceof Number) {
+			statement.bindLong(index, ((Number) value).longValue());
+		} else if(value instanceof Boolean) {
+			statement.bindLong(index, ((Boolean) value) ? 1 : 0);
+		} else if(value instanceof byte[]) {
+			statement.bindBlob(index, (byte[]) value);
+		} else {
+			statement.bindString(index, value.toString());
+		}
+	}
+	
+	private static final String[] toArray(List<String> args) {
+		return args.toArray(new String[args.size()]);
+	}
+	
+	/**
+	 * Converts a version string like 3.24.0 into a number, that 
+	 * can be compared. 
+	 */
+	private static final int getVersionNumber(String version) {
+		String[] parts = version.split("\\.");
+		int number = 0;
+		
+		for(int i = 0; i < 3; i++) {
+			number *= 1000;
+			
+			if(i < parts.length) {
+				try {
+					number += Integer.parseInt(parts[i]);
+				} catch(NumberFormatException e) {
+					// ignore suffixes, that are not part of the version number
+				}
+			}
+		}
+		
+		return number;
+	}
+	
+	/**
+	 * Adapters shared by all models, query sets and relations. 
+	 * One per database name.
+	 */
+	private static final Map<String, DatabaseAdapter> INSTANCES = new HashMap<String, DatabaseAdapter>();
+	
+	/**
+	 * Get the adapter for the database that is currently set 
+	 * via {@link DatabaseAdapter#setDatabaseName(String)}. 
+	 * 
+	 * @param context	{@link Context} of the application.
+	 * @return The shared {@link DatabaseAdapter}.
+	 */
+	public static final synchronized DatabaseAdapter getInstance(Context context) {
+		DatabaseAdapter adapter = INSTANCES.get(DATABASE_NAME);
+		
+		if(adapter == null) {
+			Context applicationContext = context.getApplicationContext();
+			
+			if(applicationContext == null) {
+				applicationContext = context;
+			}
+			
+			adapter = new DatabaseAdapter(applicationContext);
+			INSTANCES.put(DATABASE_NAME, adapter);
+		}
+		
+		return adapter;
+	}
+	
+	private Context mContext;
+	/**
+	 * Name of the database this adapter is connected to.
+	 */
+	private String mDatabaseName;
 	/**
 	 * {@link android.database.sqlite.SQLiteDatabase SQLite database} to store the data.
+	 * This connection is shared through the {@link ConnectionManager}.
 	 */
 	private SQLiteDatabase mDb;	
+	/**
+	 * Number of {@link DatabaseAdapter#open()} calls, that have not
+	 * been followed by {@link DatabaseAdapter#close()}.
+	 */
+	private int mOpenCount;
+	/**
+	 * Whether the SQLite version of the database supports
+	 * upserts. <code>null</code> until checked. 
+	 */
+	private Boolean mSupportsUpsert;
 	
 	public DatabaseAdapter(Context context) {
-		mDbHelper = new DatabaseHelper(context, DATABASE_NAME);
+		mContext = context;
+		mDatabaseName = DATABASE_NAME;
 	}
 	
 	/**
-	 * Closes the current connection to the database.
-	 * Call this method after every database interaction to prevent
-	 * data leaks.
+	 * Hands the connection back to the {@link ConnectionManager}. 
+	 * Each call to {@link DatabaseAdapter#open()} has to be followed
+	 * by a call to this method. 
+	 * <br /><br />
+	 * Note, that the connection itself stays open, so that following 
+	 * operations do not have to reopen the database. Use 
+	 * {@link ConnectionManager#close(String)} in order to really close it.
 	 */
-	public void close() {
-		mDbHelper.close();
+	public synchronized void close() {
+		if(mOpenCount == 0) {
+			return;
+		}
+		
+		mOpenCount--;
+		
+		if(mOpenCount == 0) {
+			ConnectionManager.release(mDatabaseName);
+			mDb = null;
+		}
+	}
+	
+	/**
+	 * Gets the compiled statement for the given query from the 
+	 * {@link StatementCache} of the connection. The query is only
+	 * compiled, if it is not cached yet. 
+	 * <br /><br />
+	 * The adapter has to be {@link DatabaseAdapter#open() opened} before.
+	 * The returned statement must <b>NOT</b> be closed. Instead 
+	 * {@link SQLiteStatement#releaseReference()} has to be called, once
+	 * it is not needed anymore. While binding values and executing it
+	 * callers have to synchronize on the statement. 
+	 * 
+	 * @param query	The {@link Query} to compile.
+	 * @return The compiled {@link SQLiteStatement}.
+	 */
+	public SQLiteStatement acquireStatement(Query query) {
+		return acquireStatement(mDb, query.toString());
+	}
+	
+	private SQLiteStatement acquireStatement(SQLiteDatabase db, String sql) {
+		return ConnectionManager.getStatementCache(mContext, mDatabaseName, db).acquire(db, sql);
+	}
+	
+	private void clearStatementCaches() {
+		ConnectionManager.clearStatementCaches(mContext, mDatabaseName);
 	}
 	
 	/**
@@ -88,50 +336,108 @@ public class DatabaseAdapter {
 	 * @return	Number of affected rows.
 	 */
 	public int delete(String table, Where where) {
+		return delete(table, where, 0);
+	}
+	
+	/**
+	 * Delete a single object from a specific table.
+	 * 
+	 * @param 	table	Query table.
+	 * @param 	id		Id of the object.
+	 * @return	Number of affected rows.
+	 */
+	int delete(String table, int id) {
+		Where where = new Where();
+		where.and(Model.PK, id);
+		
+		return delete(table, where, id);
+	}
+	
+	private int delete(String table, Where where, int id) {
+		List<String> args = new ArrayList<String>();
+		String whereClause = getWhereClause(where, args);
+		
 		open();	
-		int affectedRows = mDb.delete(table, where.toString().replace(" WHERE ", ""), null);
+		int affectedRows = mDb.delete(table, whereClause, toArray(args));
+		
+		if(affectedRows > 0) {
+			// the delete may have cascaded to other tables
+			invalidate(null);
+			
+			Set<String> tables = DatabaseHelper.getDependentTables(table);
+			
+			if(id != 0) {
+				evict(table, id);
+			} else {
+				tables.add(table);
+			}
+			
+			evict(tables);
+			
+			tables.add(table);
+			countDelete(tables);
+		}
+		
 		close();
 		
 		return affectedRows;
 	}
 	
 	/**
-	 * Inserts values into a table that has an unique id as identifier.
+	 * Inserts values into a table that has an unique id as identifier. 
+	 * If a row matching the {@link Where} clause exists, it will be 
+	 * updated instead. 
+	 * <br /><br />
+	 * No separate query is needed to find out, whether the row exists. 
+	 * The row is updated right away and only if that did not affect any
+	 * rows it will be inserted. If the row is identified by its primary
+	 * key, that is also part of the values, and SQLite supports it, a single
+	 * <code>INSERT ... ON CONFLICT DO UPDATE</code> statement is used.
 	 * 
 	 * @param 	table		The affected table.
 	 * @param 	values		The values to be inserted/ updated.
-	 * @param 	mId			The identifier of the affected row.
+	 * @param 	where		{@link Where} clause identifying the affected row. If
+	 * 						it is <code>null</code> the values will be inserted. 
 	 * 
-	 * @return 	The number of rows affected on update, the rowId on insert, -1 on error.		
+	 * @return 	The number of rows affected on update, the rowId on insert, -1 on error.
+	 * 			Upserts on the primary key return the rowId in both cases.		
 	 */
 	public int doInsertOrUpdate(String table, ContentValues values, Where where) {
-		int result;
-		
 		open();
-		Cursor oldVersion = get(table, where, null);
 		
-		if(oldVersion.moveToNext()) {	
-			String whereClause = null;
-			if(where != null) {
-				whereClause = where.toString().replace(" WHERE ", "");
+		try {
+			if(where == null) {
+				return insert(table, values);
+			}
+			
+			if(isPrimaryKeyUpsert(values, where) && supportsUpsert()) {
+				return upsert(table, values);
 			}
-
-			result = mDb.update(table, values, whereClause, null);
-		} else {	
-			String nullColumnHack = null;
+			
+			List<String> args = new ArrayList<String>();
+			String whereClause = getWhereClause(where, args);
 			
 			if(values.size() == 0) {
-				// if no fields are defined on a model instance the nullColumnHack
-				// needs to be utilized in order to insert an empty row. 
-				nullColumnHack = Model.PK;
+				/*
+				 * Rows without any fields cannot be updated. It is 
+				 * sufficient to make sure, that they exist. 
+				 */
+				if(exists(table, whereClause, args)) {
+					return 0;
+				}
+			} else {
+				int affectedRows = mDb.update(table, values, whereClause, toArray(args));
+				
+				if(affectedRows > 0) {
+					return affectedRows;
+				}
 			}
 			
-			result = (int) mDb.insertOrThrow(table, nullColumnHack, values);
+			return insert(table, values);
+		} finally {
+			invalidate(table);
+			close();
 		}
-		
-		oldVersion.close();
-		close();
-		return result;
 	}
 	
 	/**
@@ -140,8 +446,14 @@ public class DatabaseAdapter {
 	public void drop() {
 		open();
 		
-		mDbHelper.drop(mDb);		
-		mDbHelper.onCreate(mDb);
+		clearStatementCaches();
+		InstanceCache.clear();
+		invalidate(null);
+		countDelete(null);
+		
+		DatabaseHelper helper = getHelper();
+		helper.drop(mDb);		
+		helper.onCreate(mDb);
 		
 		close();
 		
@@ -156,66 +468,519 @@ public class DatabaseAdapter {
 	public void drop(String tableName) {
 		open();
 		
+		clearStatementCaches();
+		InstanceCache.clear();
+		invalidate(null);
+		countDelete(null);
+		
 		String sql = "DROP TABLE IF EXISTS " + tableName + ";";
 		mDb.execSQL(sql);
-		mDbHelper.onCreate(mDb);
+		getHelper().onCreate(mDb);
 		
 		close();
 	}
 	
+	private boolean exists(String table, String whereClause, List<String> args) {
+		Cursor c = mDb.rawQuery("SELECT 1 FROM `" + table + "` WHERE " + whereClause + " LIMIT 1", toArray(args));
+		
+		try {
+			return c.moveToFirst();
+		} finally {
+			c.close();
+		}
+	}
+	
 	/**
-	 * Query the database for a specific item.
+	 * @return Name of the database this adapter is connected to.
+	 */
+	public String getConnectionName() {
+		return mDatabaseName;
+	}
+	
+	/**
+	 * Renders the condition of the given {@link Where} clause with
+	 * placeholders, as expected by the where arguments of {@link SQLiteDatabase}.
 	 * 
-	 * @param 	table	Query table.
-	 * @param 	where	{@link Where} clause to apply.
-	 * @param 	limit	{@link Limit} clause to apply.
-	 * @return	{@link Cursor} that represents the query result.
+	 * @param where	{@link Where} clause or <code>null</code>.
+	 * @param args	{@link List} the bind arguments are appended to.
+	 * 
+	 * @return The condition without the leading WHERE or <code>null</code>.
 	 */
-	private Cursor get(String table, Where where, Limit limit) {
-		String whereClause = null;
-		if(where != null) {
-			whereClause = where.toString().replace(" WHERE ", "");
-		} 
+	private String getWhereClause(Where where, List<String> args) {
+		if(where != null && where.getStatement() != null) {
+			return where.getStatement().toSQL(args);
+		}
 		
-		String limitClause = null;
-		if(limit != null) {
-			limitClause = limit.toString().replace(" LIMIT ", "");
+		return null;
+	}
+	
+	private DatabaseHelper getHelper() {
+		return ConnectionManager.getHelper(mContext, mDatabaseName);
+	}
+	
+	/**
+	 * @return The {@link StatementCache} of the connection this adapter uses.
+	 */
+	public StatementCache getStatementCache() {
+		return ConnectionManager.getStatementCache(mContext, mDatabaseName);
+	}
+	
+	private int insert(String table, ContentValues values) {
+		String nullColumnHack = null;
+		
+		if(values.size() == 0) {
+			// if no fields are defined on a model instance the nullColumnHack
+			// needs to be utilized in order to insert an empty row. 
+			nullColumnHack = Model.PK;
 		}
 		
-		Cursor result = mDb.query(table, 
-				null, 
-				whereClause, 
-				null, 
-				null, 
-				null, 
-				null, 
-				limitClause);
+		return (int) mDb.insertOrThrow(table, nullColumnHack, values);
+	}
+	
+	/**
+	 * Checks, if the row is identified by nothing but its primary key
+	 * and the primary key is also part of the values, that will be written.
+	 */
+	private boolean isPrimaryKeyUpsert(ContentValues values, Where where) {
+		Statement stmt = where.getStatement();
 		
-		return result;
+		return values.containsKey(Model.PK)
+			&& stmt != null
+			&& !(stmt instanceof ComposedStatement)
+			&& stmt.getKeys().size() == 1
+			&& where.hasConstraint(Model.PK);
 	}
 	
 	/**
-	 * This opens a new database connection. If a connection or database already exists
-	 * the system will ensure that getWritableDatabase() will return this Database.
+	 * Marks a table as changed, so that cached results of queries,
+	 * that read from it, are not used anymore. See {@link QueryCache}.
+	 * <br /><br />
+	 * Until a transaction ends, other connections still see the old 
+	 * rows and might cache them again. Therefore all tables changed 
+	 * within a transaction are invalidated once more, when it ends.
 	 * 
-	 * DO NOT try to do caching by yourself because this could result in an
-	 * inappropriate state of the database.
+	 * @param table	Name of the table. <code>null</code> for all tables.
+	 */
+	protected void invalidate(String table) {
+		QueryCache.invalidate(mDatabaseName, table);
+		
+		if(mDb != null && mDb.inTransaction()) {
+			CHANGED_TABLES.get().add(table);
+		}
+	}
+	
+	private void invalidateChangedTables() {
+		Set<String> tables = CHANGED_TABLES.get();
+		
+		for(String table : tables) {
+			QueryCache.invalidate(mDatabaseName, table);
+		}
+		
+		tables.clear();
+	}
+	
+	/**
+	 * Removes a model from the {@link InstanceCache}, as its row has
+	 * been changed. 
+	 * <br /><br />
+	 * Just like for {@link DatabaseAdapter#invalidate(String)} other 
+	 * connections still read the old row until the transaction ends 
+	 * and might cache it again. Therefore the model is removed once 
+	 * more, when the transaction ends. 
+	 * 
+	 * @param table	Table of the model.
+	 * @param id	Id of the model.
+	 */
+	protected void evict(String table, int id) {
+		String key = InstanceCache.getKey(mDatabaseName, table, id);
+		InstanceCache.evict(key);
+		
+		if(mDb != null && mDb.inTransaction()) {
+			EVICTED_MODELS.get().add(key);
+		}
+	}
+	
+	/**
+	 * Removes all models of the given tables from the {@link InstanceCache}.
+	 * Like {@link DatabaseAdapter#evict(String, int)} this is repeated, 
+	 * when the transaction ends.
+	 * 
+	 * @param tables	Names of the tables.
+	 */
+	protected void evict(Set<String> tables) {
+		InstanceCache.evict(mDatabaseName, tables);
+		
+		if(mDb != null && mDb.inTransaction()) {
+			EVICTED_TABLES.get().addAll(tables);
+		}
+	}
+	
+	private void evictChangedModels() {
+		Set<String> keys = EVICTED_MODELS.get();
+		
+		for(String key : keys) {
+			InstanceCache.evict(key);
+		}
+		
+		keys.clear();
+		
+		Set<String> tables = EVICTED_TABLES.get();
+		InstanceCache.evict(mDatabaseName, tables);
+		tables.clear();
+	}
+	
+	/**
+	 * Marks a model, that has just been saved, as clean. Within a 
+	 * transaction the changes might still be rolled back. The model
+	 * then stays dirty until the transaction is committed, so that
+	 * the next save writes all of its changes again. 
+	 * 
+	 * @param model	The saved model.
+	 */
+	void markClean(Model model) {
+		open();
+		
+		try {
+			if(mDb.inTransaction()) {
+				SAVED_MODELS.get().add(model);
+			} else {
+				model.markClean();
+			}
+		} finally {
+			close();
+		}
+	}
+	
+	private void markSavedModelsClean(boolean committed) {
+		List<Model> models = SAVED_MODELS.get();
+		
+		if(committed) {
+			for(Model model : models) {
+				model.markClean();
+			}
+		}
+		
+		models.clear();
+	}
+	
+	/**
+	 * @return <code>true</code> if the current thread is in a transaction.
+	 */
+	public boolean inTransaction() {
+		open();
+		
+		try {
+			return mDb.inTransaction();
+		} finally {
+			close();
+		}
+	}
+	
+	/**
+	 * Acquires the shared connection from the {@link ConnectionManager}.
+	 * The database is only opened, if this has not already happened
+	 * before. Calls can be nested, as long as each of them is followed
+	 * by a call to {@link DatabaseAdapter#close()}.
 	 * 
 	 * @return this to enable chaining.
 	 * @throws SQLException
 	 */
-	public DatabaseAdapter open() throws SQLException {
-		mDb = mDbHelper.getWritableDatabase();
+	public synchronized DatabaseAdapter open() throws SQLException {
+		if(mOpenCount == 0) {
+			mDb = ConnectionManager.acquire(mContext, mDatabaseName);
+		}
+		
+		mOpenCount++;
 		
 		return this;
 	}
 	
+	/**
+	 * Executes the given select. All values of the select are handed
+	 * to SQLite as bind arguments, so that the statement only has to be
+	 * compiled once for each query shape. 
+	 * <br /><br />
+	 * If the {@link QueryCache} is enabled, the result is looked up 
+	 * there first. Queries within a transaction bypass the cache, as
+	 * they may see changes, that are not committed yet.
+	 * 
+	 * @param select	{@link SelectStatement} to execute.
+	 * @return {@link Cursor} that represents the query result.
+	 */
 	public Cursor query(SelectStatement select) {
-		return mDb.rawQuery(select.toString(), null);
+		return query(select, true);
+	}
+	
+	/**
+	 * Executes the given select like {@link DatabaseAdapter#query(SelectStatement)}.
+	 * 
+	 * @param select	{@link SelectStatement} to execute.
+	 * @param useCache	<code>false</code> to bypass the {@link QueryCache}. Use
+	 * 					this for results, that are read row by row, as caching 
+	 * 					reads them up front.
+	 * @return {@link Cursor} that represents the query result.
+	 */
+	public Cursor query(SelectStatement select, boolean useCache) {
+		List<String> args = new ArrayList<String>();
+		String sql = select.toSQL(args);
+		
+		if(!useCache || !QueryCache.isEnabled() || mDb.inTransaction()) {
+			return getReader().rawQuery(sql, toArray(args));
+		}
+		
+		String key = QueryCache.getKey(mDatabaseName, sql, args);
+		Cursor cached = QueryCache.getCursor(key);
+		
+		if(cached != null) {
+			return cached;
+		}
+		
+		QueryCache.Dependencies dependencies = getDependencies(select);
+		
+		return QueryCache.putCursor(key, dependencies, getReader().rawQuery(sql, toArray(args)));
+	}
+	
+	private QueryCache.Dependencies getDependencies(SelectStatement select) {
+		Set<String> tables = new HashSet<String>();
+		select.collectTables(tables);
+		
+		return QueryCache.getDependencies(mDatabaseName, tables);
 	}
 	
 	public Cursor query(String query) {
-		return mDb.rawQuery(query, null);
+		return getReader().rawQuery(query, null);
+	}
+	
+	/**
+	 * Gets the connection, that queries are run on. In write-ahead log
+	 * mode this is one of the read-only connections of the 
+	 * {@link ConnectionManager}, unless the current thread is in a 
+	 * transaction. Then it has to read from the writer, in order to 
+	 * see its own changes. 
+	 */
+	private SQLiteDatabase getReader() {
+		if(mDb.inTransaction()) {
+			return mDb;
+		}
+		
+		return ConnectionManager.getReader(mContext, mDatabaseName);
+	}
+	
+	/**
+	 * Executes a select, that returns a single number, like a 
+	 * <code>COUNT(*)</code>. The compiled statement is taken from
+	 * the {@link StatementCache}, so repeated executions of the same
+	 * query shape do not have to compile it again. 
+	 * 
+	 * @param select	{@link SelectStatement} returning one row and column.
+	 * @return The value of the first column of the first row.
+	 */
+	public long queryForLong(SelectStatement select) {
+		List<String> args = new ArrayList<String>();
+		String sql = select.toSQL(args);
+		
+		open();
+		
+		try {
+			String key = null;
+			QueryCache.Dependencies dependencies = null;
+			
+			if(QueryCache.isEnabled() && !mDb.inTransaction()) {
+				key = QueryCache.getKey(mDatabaseName, sql, args);
+				Long cached = QueryCache.getLong(key);
+				
+				if(cached != null) {
+					return cached;
+				}
+				
+				dependencies = getDependencies(select);
+			}
+			
+			long value = simpleQueryForLong(sql, args);
+			
+			if(key != null) {
+				QueryCache.putLong(key, dependencies, value);
+			}
+			
+			return value;
+		} finally {
+			close();
+		}
+	}
+	
+	private long simpleQueryForLong(String sql, List<String> args) {
+		SQLiteStatement statement = acquireStatement(getReader(), sql);
+		
+		try {
+			synchronized(statement) {
+				statement.clearBindings();
+				
+				for(int i = 0, size = args.size(); i < size; i++) {
+					statement.bindString(i + 1, args.get(i));
+				}
+				
+				return statement.simpleQueryForLong();
+			}
+		} finally {
+			statement.releaseReference();
+		}
+	}
+	
+	/**
+	 * Runs the given callback in a transaction. All statements of the 
+	 * callback will be committed together, or not at all. 
+	 * <br /><br />
+	 * If a transaction is already in progress on the current thread, 
+	 * the callback will be executed within a savepoint of that transaction. 
+	 * Rolling back the savepoint only discards the changes of the nested
+	 * callback. The outer transaction will still be able to commit. 
+	 * 
+	 * @param callback	{@link TransactionCallback} to run.
+	 * 
+	 * @return <code>true</code> if the changes have been committed, 
+	 * 		   <code>false</code> if they were rolled back.
+	 */
+	public boolean runInTransaction(TransactionCallback callback) {
+		open();
+		
+		try {
+			if(mDb.inTransaction()) {
+				return runInSavepoint(callback);
+			}
+			
+			mDb.beginTransaction();
+			
+			boolean committed = false;
+			
+			try {
+				if(callback.run(this)) {
+					mDb.setTransactionSuccessful();
+					committed = true;
+					
+					return true;
+				}
+				
+				return false;
+			} finally {
+				mDb.endTransaction();
+				invalidateChangedTables();
+				evictChangedModels();
+				markSavedModelsClean(committed);
+			}
+		} finally {
+			close();
+		}
+	}
+	
+	private boolean runInSavepoint(TransactionCallback callback) {
+		int depth = SAVEPOINT_DEPTH.get();
+		String savepoint = "androrm_savepoint_" + depth;
+		
+		mDb.execSQL("SAVEPOINT " + savepoint + ";");
+		SAVEPOINT_DEPTH.set(depth + 1);
+		
+		List<Model> saved = SAVED_MODELS.get();
+		int savedBefore = saved.size();
+		boolean success = false;
+		
+		try {
+			success = callback.run(this);
+		} finally {
+			SAVEPOINT_DEPTH.set(depth);
+			
+			if(!success) {
+				mDb.execSQL("ROLLBACK TO " + savepoint + ";");
+				// models saved within the savepoint have not been written
+				saved.subList(savedBefore, saved.size()).clear();
+			}
+			
+			mDb.execSQL("RELEASE " + savepoint + ";");
+		}
+		
+		return success;
+	}
+	
+	/**
+	 * <code>INSERT ... ON CONFLICT DO UPDATE</code> is supported 
+	 * since SQLite 3.24.0. 
+	 * 
+	 * @return <code>true</code> if the database supports upserts.
+	 */
+	private boolean supportsUpsert() {
+		if(mSupportsUpsert == null) {
+			Cursor c = mDb.rawQuery("SELECT sqlite_version()", null);
+			
+			try {
+				String version = "0";
+				
+				if(c.moveToFirst()) {
+					version = c.getString(0);
+				}
+				
+				mSupportsUpsert = getVersionNumber(version) >= 3024000;
+			} finally {
+				c.close();
+			}
+		}
+		
+		return mSupportsUpsert;
+	}
+	
+	/**
+	 * Writes a row, that is identified by its primary key, in a 
+	 * single statement. 
+	 * 
+	 * @return The rowId of the inserted or updated row.
+	 */
+	private int upsert(String table, ContentValues values) {
+		String[] columns = values.keySet().toArray(new String[values.size()]);
+		Arrays.sort(columns);
+		
+		InsertStatement upsert = new InsertStatement();
+		upsert.into(table)
+			  .columns(columns)
+			  .onConflict(Model.PK);
+		
+		SQLiteStatement statement = acquireStatement(mDb, upsert.toString());
+		
+		try {
+			synchronized(statement) {
+				bind(statement, columns, values);
+				statement.execute();
+			}
+		} finally {
+			statement.releaseReference();
+		}
+		
+		return values.getAsInteger(Model.PK);
+	}
+	
+	/**
+	 * Updates the rows matching the {@link Where} clause. Unlike 
+	 * {@link DatabaseAdapter#doInsertOrUpdate(String, ContentValues, Where)}
+	 * nothing is inserted, if no row matches.
+	 * <br /><br />
+	 * The updated models are not removed from the {@link InstanceCache}.
+	 * Callers have to evict them, like {@link Model} does after saving.
+	 * 
+	 * @param table		The affected table.
+	 * @param values	The columns to update.
+	 * @param where		{@link Where} clause identifying the affected rows.
+	 * 
+	 * @return The number of updated rows.
+	 */
+	int update(String table, ContentValues values, Where where) {
+		List<String> args = new ArrayList<String>();
+		String whereClause = getWhereClause(where, args);
+		
+		open();
+		
+		try {
+			return mDb.update(table, values, whereClause, toArray(args));
+		} finally {
+			invalidate(table);
+			close();
+		}
 	}
 	
 	/**
@@ -227,7 +992,10 @@ public class DatabaseAdapter {
 	public void setModels(Collection<Class<? extends Model>> models) {
 		open();
 		
-		mDbHelper.setModels(mDb, models);
+		clearStatementCaches();
+		InstanceCache.clear();
+		invalidate(null);
+		getHelper().setModels(mDb, models);
 		
 		close();
 	}
@@ -38,7 +38,13 @@ public class DatabaseBuilder {
 	private static final String TAG = "ANDORM:DATABASE:BUILDER";
 	
 	public static final String getTableName(Class<?> clazz) {
-		return clazz.getSimpleName().toLowerCase();
+		String name = ModelCache.getTableName(clazz);
+		
+		if(name == null) {
+			name = clazz.getSimpleName().toLowerCase();
+		}
+		
+		return name;
 	}
 	
 	protected static final<T extends Model> List<TableDefinition> getTableDefinitions(Class<T> clazz) {
@@ -46,11 +52,13 @@ public class DatabaseBuilder {
 		
 		if(!Modifier.isAbstract(clazz.getModifiers())) {
 			try {
-				if(ModelCache.knowsModel(clazz)) {
-					return ModelCache.getTableDefinitions(clazz);
+				List<TableDefinition> known = ModelCache.getTableDefinitions(clazz);
+				
+				if(known != null) {
+					return known;
 				}
 
-				T object = Model.getInstace(clazz);
+				T object = InstanceFactories.getPrototype(clazz);
 				TableDefinition definition = new TableDefinition(getTableName(clazz));
 				
 				getFieldDefinitions(object, clazz, definition);
@@ -131,6 +139,22 @@ public class DatabaseBuilder {
 			return ModelCache.fieldsForModel(clazz);
 		}
 		
+		List<Field> fields = getDeclaredFields(clazz, instance);
+		
+		if(ModelCache.knowsModel(clazz)) {
+			ModelCache.setModelFields(clazz, fields, getInheritedFields(clazz, instance));
+		}
+		
+		return fields;
+	}
+	
+	private static final List<Field> getDeclaredFields(
+			
+			Class<? extends Model> 	clazz, 
+			Model 					instance
+			
+	) {
+		
 		Field[] declaredFields = clazz.getDeclaredFields();
 		List<Field> fields = new ArrayList<Field>();
 		
@@ -152,7 +176,25 @@ public class DatabaseBuilder {
 					+ clazz.getSimpleName(), e);
 		}
 		
-		ModelCache.setModelFields(clazz, fields);
+		return fields;
+	}
+	
+	/**
+	 * @return All database fields of the superclasses of the given
+	 * 		   class. Fields of subclasses come first.
+	 */
+	private static final List<Field> getInheritedFields(
+			
+			Class<? extends Model> 	clazz, 
+			Model 					instance
+			
+	) {
+		
+		List<Field> fields = new ArrayList<Field>();
+		
+		for(Class<? extends Model> parent = Model.getSuperclass(clazz); parent != null; parent = Model.getSuperclass(parent)) {
+			fields.addAll(getFields(parent, instance));
+		}
 		
 		return fields;
 	}
@@ -186,7 +228,7 @@ public class DatabaseBuilder {
 	private static final<T extends Model> List<TableDefinition> getRelationDefinitions(Class<T> clazz) {
 		List<TableDefinition> definitions = new ArrayList<TableDefinition>();
 		
-		T object = Model.getInstace(clazz);
+		T object = InstanceFactories.getPrototype(clazz);
 		getRelationDefinitions(object, clazz, definitions);
 		
 		return definitions;
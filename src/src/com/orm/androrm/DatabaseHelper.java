@@ -23,11 +23,15 @@
 package com.orm.androrm;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import android.content.Context;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
 import android.util.Log;
@@ -55,6 +59,54 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 			FOREIGN_KEY_CONSTRAINTS = "OFF";
 		}
 	}
+	private static boolean WRITE_AHEAD_LOGGING = false;
+	/**
+	 * Enables the write-ahead log of SQLite. Readers then no longer
+	 * block the writer and vice versa, so that queries can be 
+	 * answered from a pool of read-only connections while another
+	 * thread is writing. Only affects connections, that are opened
+	 * afterwards.
+	 * 
+	 * @param on	<code>true</code> to use the write-ahead log. 
+	 */
+	public static final void setWriteAheadLogging(boolean on) {
+		WRITE_AHEAD_LOGGING = on;
+	}
+	private static int READER_COUNT = 2;
+	/**
+	 * Sets the number of read-only connections, that are opened
+	 * in addition to the writer, if the write-ahead log is used.
+	 * 
+	 * @param count	Number of readers. 
+	 */
+	public static final void setReaderCount(int count) {
+		READER_COUNT = count;
+	}
+	public static final int getReaderCount() {
+		return READER_COUNT;
+	}
+	private static int AUTO_CHECKPOINT = -1;
+	/**
+	 * Sets the number of pages the write-ahead log may grow to, 
+	 * before it is written back into the database. A value below 
+	 * zero keeps the default of SQLite.
+	 * 
+	 * @param pages	Checkpoint threshold in pages.
+	 */
+	public static final void setAutoCheckpoint(int pages) {
+		AUTO_CHECKPOINT = pages;
+	}
+	private static long JOURNAL_SIZE_LIMIT = -1;
+	/**
+	 * Sets the size in bytes, the write-ahead log is truncated
+	 * to after a checkpoint. A value below zero keeps the default
+	 * of SQLite.
+	 * 
+	 * @param bytes	Size limit of the journal. 
+	 */
+	public static final void setJournalSizeLimit(long bytes) {
+		JOURNAL_SIZE_LIMIT = bytes;
+	}
 	/**
 	 * {@link Set} containing names of all tables, that were
 	 * created by this class.
@@ -65,6 +117,11 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 	 * by the ORM.
 	 */
 	private static Set<Class<? extends Model>> mModels;
+	/**
+	 * Names of the tables with a foreign key, by the name of 
+	 * the table it points to.
+	 */
+	private static Map<String, Set<String>> mReferences;
 
 	/**
 	 * Get a {@link Set} of model classes, that are handled by
@@ -93,10 +150,113 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
 		return mTables;
 	}
+	
+	private static final Map<String, Set<String>> getReferences() {
+		if(mReferences == null) {
+			mReferences = new HashMap<String, Set<String>>();
+		}
+		
+		return mReferences;
+	}
+	
+	/**
+	 * Get the tables, that a delete from the given table may change.
+	 * Foreign keys either cascade the delete or set the column to 
+	 * <code>null</code>, so these are all tables that point to it 
+	 * directly or through other tables. 
+	 * 
+	 * @param table	Name of the table rows are deleted from.
+	 * @return {@link Set} of tablenames.
+	 */
+	protected static final Set<String> getDependentTables(String table) {
+		Set<String> tables = new HashSet<String>();
+		LinkedList<String> pending = new LinkedList<String>();
+		pending.add(table);
+		
+		while(!pending.isEmpty()) {
+			Set<String> references = getReferences().get(pending.removeFirst());
+			
+			if(references != null) {
+				for(String reference : references) {
+					if(tables.add(reference)) {
+						pending.add(reference);
+					}
+				}
+			}
+		}
+		
+		return tables;
+	}
 
+	/**
+	 * Set, if the write-ahead log is actually in use for the 
+	 * connection opened by this helper.
+	 */
+	private boolean mWriteAheadLogging;
+	
 	public DatabaseHelper(Context context, String dbName) {
 		super(context, dbName, null, DATABASE_VERSION);
 	}
+	
+	/**
+	 * @return <code>true</code> if the database is in write-ahead log mode.
+	 */
+	protected boolean isWriteAheadLogging() {
+		return mWriteAheadLogging;
+	}
+	
+	/**
+	 * Executes a pragma and returns its result. Pragmas, that
+	 * return a row can not be run with {@link SQLiteDatabase#execSQL(String)}.
+	 */
+	private String pragma(SQLiteDatabase db, String pragma) {
+		Cursor c = db.rawQuery("PRAGMA " + pragma, null);
+		
+		try {
+			if(c.moveToFirst()) {
+				return c.getString(0);
+			}
+			
+			return null;
+		} finally {
+			c.close();
+		}
+	}
+	
+	private void setJournalMode(SQLiteDatabase db) {
+		String mode = pragma(db, "journal_mode");
+		
+		if(WRITE_AHEAD_LOGGING) {
+			if(!"wal".equalsIgnoreCase(mode)) {
+				mode = pragma(db, "journal_mode=WAL");
+			}
+			
+			mWriteAheadLogging = "wal".equalsIgnoreCase(mode);
+			
+			if(!mWriteAheadLogging) {
+				Log.w(TAG, "write-ahead logging is not supported by this SQLite version.");
+				return;
+			}
+			
+			if(AUTO_CHECKPOINT >= 0) {
+				pragma(db, "wal_autocheckpoint=" + AUTO_CHECKPOINT);
+			}
+			
+			if(JOURNAL_SIZE_LIMIT >= 0) {
+				pragma(db, "journal_size_limit=" + JOURNAL_SIZE_LIMIT);
+			}
+		} else {
+			/*
+			 * The journal mode is stored in the database file. 
+			 * So it has to be switched back explicitly.
+			 */
+			if("wal".equalsIgnoreCase(mode)) {
+				pragma(db, "journal_mode=DELETE");
+			}
+			
+			mWriteAheadLogging = false;
+		}
+	}
 
 	/**
 	 * Drops all tables of the database.
@@ -113,6 +273,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
 		mTables.clear();
 		mModels.clear();
+		getReferences().clear();
 	}
 
 	@Override
@@ -122,7 +283,23 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
 			for(TableDefinition definition: tableDefinitions) {
 				db.execSQL(definition.toString());
+				
+				for(String index : definition.getIndexDefinitions()) {
+					db.execSQL(index);
+				}
+				
 				getTables().add(definition.getTableName());
+				
+				for(String target : definition.getReferencedTables()) {
+					Set<String> references = getReferences().get(target);
+					
+					if(references == null) {
+						references = new HashSet<String>();
+						getReferences().put(target, references);
+					}
+					
+					references.add(definition.getTableName());
+				}
 			}
 		}
 	}
@@ -134,6 +311,8 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 		if (!db.isReadOnly()) {
 			// Enable foreign key constraints
 			db.execSQL("PRAGMA foreign_keys=" + FOREIGN_KEY_CONSTRAINTS + ";");
+			
+			setJournalMode(db);
 		}
 	}
 
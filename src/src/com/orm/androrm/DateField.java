@@ -37,6 +37,12 @@ import android.database.Cursor;
  * @author Philipp Giese
  */
 public class DateField extends DataField<Date> {
+	
+	/**
+	 * Time of the value, when it has been marked clean. Dates 
+	 * can be changed in place without calling set.
+	 */
+	private long mCleanTime;
 
 	/**
 	 * Initializes this field. Note, that dates will be
@@ -73,6 +79,7 @@ public class DateField extends DataField<Date> {
 				GregorianCalendar cal = new GregorianCalendar(year, month, day, hour, minute, second);
 				
 				mValue = cal.getTime();
+				markDirty();
 			}
 		}
 	}
@@ -132,6 +139,24 @@ public class DateField extends DataField<Date> {
 		return null;
 	}
 
+	@Override
+	public boolean isDirty() {
+		if(super.isDirty()) {
+			return true;
+		}
+		
+		return mValue != null && mValue.getTime() != mCleanTime;
+	}
+	
+	@Override
+	protected void markClean() {
+		super.markClean();
+		
+		if(mValue != null) {
+			mCleanTime = mValue.getTime();
+		}
+	}
+
 	@Override
 	public void putData(String key, ContentValues values) {
 		values.put(key, getDateString());
@@ -141,6 +166,11 @@ public class DateField extends DataField<Date> {
 	public void set(Cursor c, String fieldName) {
 		fromString(c.getString(c.getColumnIndexOrThrow(fieldName)));
 	}
+	
+	@Override
+	protected void set(Cursor c, String fieldName, int[] columnIndices) {
+		fromString(c.getString(columnIndices[0]));
+	}
 
 	@Override
 	public void reset() {
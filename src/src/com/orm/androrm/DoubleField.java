@@ -67,12 +67,22 @@ public class DoubleField extends DataField<Double> {
 	public void set(Cursor c, String fieldName) {
 		set(c.getDouble(c.getColumnIndexOrThrow(fieldName)));
 	}
+	
+	@Override
+	protected void set(Cursor c, String fieldName, int[] columnIndices) {
+		set(c.getDouble(columnIndices[0]));
+	}
 
 	private void setUp() {
 		mType = "numeric";
 		mValue = 0.0;
 	}
 
+	@Override
+	protected Object readColumn(Cursor c, int columnIndex) {
+		return c.getDouble(columnIndex);
+	}
+	
 	@Override
 	public void reset() {
 		mValue = 0.0;
@@ -0,0 +1,108 @@
+/**
+ * 	Copyright (c) 2010 Philipp Giese
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.orm.androrm;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Matches, if a correlated subselect returns at least one row. 
+ * SQLite stops the subselect at the first row it finds, so no 
+ * intermediate result has to be sorted or made distinct. 
+ * <br /><br />
+ * Example: <br />
+ * <pre>
+ * EXISTS (SELECT 1 FROM `branch` AS t1 WHERE t1.mBrand=t0.mId AND t1.mName = 'foo')
+ * </pre>
+ * 
+ * @author Philipp Giese
+ */
+public class ExistsStatement extends Statement {
+
+	private TableJoin mTables;
+	private String mCondition;
+	private Statement mStatement;
+	
+	/**
+	 * @param tables	Tables of the subselect.
+	 * @param condition	Links the subselect to the outer select, 
+	 * 					e.g. <code>t1.mBrand=t0.mId</code>.
+	 * @param statement	{@link Statement} the rows of the subselect 
+	 * 					have to match. May be <code>null</code>. Its
+	 * 					columns have to be qualified.
+	 */
+	public ExistsStatement(TableJoin tables, String condition, Statement statement) {
+		mTables = tables;
+		mCondition = condition;
+		mStatement = statement;
+	}
+	
+	@Override
+	protected void collectTables(Set<String> tables) {
+		mTables.collectTables(tables);
+		
+		if(mStatement != null) {
+			mStatement.collectTables(tables);
+		}
+	}
+	
+	@Override
+	public Set<String> getKeys() {
+		if(mStatement != null) {
+			return mStatement.getKeys();
+		}
+		
+		return new HashSet<String>();
+	}
+	
+	/**
+	 * The columns of this statement are qualified already.
+	 */
+	@Override
+	protected Statement qualify(String alias) {
+		return this;
+	}
+	
+	@Override
+	public String toSQL(List<String> args) {
+		String exists = "EXISTS (SELECT 1 FROM " + mTables.toSQL(args) + " WHERE " + mCondition;
+		
+		if(mStatement != null) {
+			exists += " AND " + mStatement.toSQL(args);
+		}
+		
+		return exists + ")";
+	}
+	
+	@Override
+	public String toString() {
+		String exists = "EXISTS (SELECT 1 FROM " + mTables + " WHERE " + mCondition;
+		
+		if(mStatement != null) {
+			exists += " AND " + mStatement;
+		}
+		
+		return exists + ")";
+	}
+}
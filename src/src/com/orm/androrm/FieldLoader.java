@@ -0,0 +1,80 @@
+/**
+ * 	Copyright (c) 2010 Philipp Giese
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.orm.androrm;
+
+import android.database.Cursor;
+
+/**
+ * Loads the value of a {@link DataField}, that has been left out 
+ * of a query by {@link QuerySet#only(String...)} or 
+ * {@link QuerySet#defer(String...)}. The value is read from the 
+ * row of the model the first time it is accessed.
+ * 
+ * @author Philipp Giese
+ */
+class FieldLoader {
+
+	private DatabaseAdapter mAdapter;
+	private Model mModel;
+	private String mFieldName;
+	
+	public FieldLoader(DatabaseAdapter adapter, Model model, String fieldName) {
+		mAdapter = adapter;
+		mModel = model;
+		mFieldName = fieldName;
+	}
+	
+	/**
+	 * Reads the columns of the given field from the row
+	 * of the model and assigns them to the field. 
+	 * 
+	 * @param field	{@link DataField} the value is loaded for.
+	 */
+	public void load(DataField<?> field) {
+		if(mModel.getId() == 0) {
+			return;
+		}
+		
+		Where where = new Where();
+		where.and(Model.PK, mModel.getId());
+		
+		SelectStatement select = new SelectStatement();
+		select.from(DatabaseBuilder.getTableName(mModel.getClass()))
+			  .select(field.getColumnNames(mFieldName))
+			  .where(where);
+		
+		mAdapter.open();
+		
+		Cursor c = mAdapter.query(select);
+		
+		try {
+			if(c.moveToFirst()) {
+				field.set(c, mFieldName);
+				field.markClean();
+			}
+		} finally {
+			c.close();
+			mAdapter.close();
+		}
+	}
+}
@@ -0,0 +1,151 @@
+/**
+ * 	Copyright (c) 2010 Philipp Giese
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.orm.androrm;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Flat view on all fields of a model class and its superclasses. 
+ * The fields are sorted into data fields, foreign keys and relations
+ * once, so that saving and loading models only has to loop over the
+ * fields they are interested in, no matter how deep the class 
+ * hierarchy is. 
+ * <br /><br />
+ * Plans are kept with the {@link ModelMeta} of their class in the
+ * {@link ModelCache}. All indices refer to the {@link ModelAdapter} 
+ * of the class.
+ * 
+ * @author Philipp Giese
+ *
+ * @param <T>	Type of the model.
+ */
+class FieldPlan<T extends Model> {
+
+	/**
+	 * @param clazz	Class of the model.
+	 * @return The plan of the given class.
+	 */
+	public static <T extends Model> FieldPlan<T> get(Class<T> clazz) {
+		return ModelCache.getPlan(clazz);
+	}
+	
+	private ModelAdapter<T> mAdapter;
+	private String[] mFieldNames;
+	/**
+	 * Fields stored in columns of the table of the model. This
+	 * includes the primary key and foreign keys.
+	 */
+	private int[] mDataFields;
+	/**
+	 * Foreign keys by the class they point to. If there are several
+	 * foreign keys pointing to the same class, the first one is used.
+	 */
+	private Map<Class<? extends Model>, Integer> mForeignKeys;
+	/**
+	 * Relations, that are stored outside of the table of the model. 
+	 */
+	private int[] mRelations;
+	
+	FieldPlan(Class<T> clazz) {
+		mAdapter = ModelAdapters.get(clazz);
+		mFieldNames = mAdapter.getFieldNames();
+		mForeignKeys = new HashMap<Class<? extends Model>, Integer>();
+		
+		int[] dataFields = new int[mFieldNames.length];
+		int[] relations = new int[mFieldNames.length];
+		int dataCount = 0;
+		int relationCount = 0;
+		
+		T prototype = InstanceFactories.getPrototype(clazz);
+		
+		if(prototype != null) {
+			for(int i = 0; i < mFieldNames.length; i++) {
+				AndrormField field = mAdapter.getField(prototype, i);
+				
+				if(field instanceof DataField) {
+					dataFields[dataCount++] = i;
+				}
+				
+				if(field instanceof ForeignKeyField) {
+					Class<? extends Model> target = ((ForeignKeyField<?>) field).getTarget();
+					
+					if(!mForeignKeys.containsKey(target)) {
+						mForeignKeys.put(target, i);
+					}
+				}
+				
+				if(field instanceof ManyToManyField 
+					|| field instanceof OneToManyField 
+					|| field instanceof OneToOneField) {
+					
+					relations[relationCount++] = i;
+				}
+			}
+		}
+		
+		mDataFields = new int[dataCount];
+		mRelations = new int[relationCount];
+		
+		System.arraycopy(dataFields, 0, mDataFields, 0, dataCount);
+		System.arraycopy(relations, 0, mRelations, 0, relationCount);
+	}
+	
+	public ModelAdapter<T> getAdapter() {
+		return mAdapter;
+	}
+	
+	/**
+	 * @return Indices of all fields, that are stored in a column.
+	 */
+	public int[] getDataFields() {
+		return mDataFields;
+	}
+	
+	public String[] getFieldNames() {
+		return mFieldNames;
+	}
+	
+	/**
+	 * @param target	Class the foreign key points to.
+	 * @return Index of the foreign key or <code>-1</code> if there 
+	 * 			is none pointing to the target. 
+	 */
+	public int getForeignKey(Class<? extends Model> target) {
+		Integer index = mForeignKeys.get(target);
+		
+		if(index == null) {
+			return -1;
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * @return Indices of all many-to-many, one-to-many and one-to-one
+	 * 			relations.
+	 */
+	public int[] getRelations() {
+		return mRelations;
+	}
+}
@@ -122,6 +122,21 @@ public class Filter {
 		return this;
 	}
 	
+	/**
+	 * Use this function, if you want the value of the field to
+	 * be one of the values returned by the given select. This way
+	 * the values do not have to be read into memory first. 
+	 * 
+	 * @param key		Chain to the field.
+	 * @param select	{@link SelectStatement} returning one column.
+	 * @return	<code>this</code> for chaining.
+	 */
+	public Filter in(String key, SelectStatement select) {
+		mRules.add(new Rule(key, new InStatement(getFieldName(key), select)));
+		
+		return this;
+	}
+	
 	/**
 	 * See {@link Filter#is(String, String)}.
 	 */
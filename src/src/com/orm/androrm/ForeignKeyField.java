@@ -80,6 +80,8 @@ public class ForeignKeyField<T extends Model> extends DataField<T> implements Re
 	 * 			if nothing could be found. 
 	 */
 	public T get(Context context) {
+		loadDeferred();
+		
 		if(mValue == null) {
 			return Model.objects(context, mTarget).get(mReference);
 		}
@@ -126,6 +128,8 @@ public class ForeignKeyField<T extends Model> extends DataField<T> implements Re
 	 * 			the database, <code>false</code> otherwise.
 	 */
 	public boolean isPersisted() {
+		loadDeferred();
+		
 		return (mValue != null && mValue.getId() != 0) || mReference != 0;
 	}
 
@@ -138,6 +142,11 @@ public class ForeignKeyField<T extends Model> extends DataField<T> implements Re
 		}
 	}
 
+	@Override
+	protected Object readColumn(Cursor c, int columnIndex) {
+		return c.getInt(columnIndex);
+	}
+	
 	/**
 	 * When models are deleted you may wish to also release
 	 * all references to other models on the instance in order
@@ -155,6 +164,11 @@ public class ForeignKeyField<T extends Model> extends DataField<T> implements Re
 	public void set(Cursor c, String fieldName) {
 		set(c.getInt(c.getColumnIndexOrThrow(fieldName)));
 	}
+	
+	@Override
+	protected void set(Cursor c, String fieldName, int[] columnIndices) {
+		set(c.getInt(columnIndices[0]));
+	}
 
 	/**
 	 * As an alternative you don't have to hand in an instance of
@@ -164,7 +178,9 @@ public class ForeignKeyField<T extends Model> extends DataField<T> implements Re
 	 * @param id	{@link Model#PK} of the referenced model.
 	 */
 	public void set(int id) {
+		defer(null);
 		mReference = id;
+		markDirty();
 	}
 
 	@Override
@@ -0,0 +1,155 @@
+/**
+ * 	Copyright (c) 2010 Philipp Giese
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.orm.androrm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.database.Cursor;
+
+/**
+ * Creates models out of the rows of one {@link Cursor}. All fields 
+ * of the model class and the indices of their columns are looked up
+ * once, when the plan is created. Each row is then filled using the
+ * column indices only.
+ * 
+ * @author Philipp Giese
+ *
+ * @param <T>	Type of the models.
+ */
+class HydrationPlan<T extends Model> {
+
+	/**
+	 * A single {@link DataField} of the model together with the 
+	 * indices of its columns.
+	 */
+	private static class Step {
+		
+		/**
+		 * Position of the field in its {@link ModelAdapter}.
+		 */
+		private int mIndex;
+		private String mFieldName;
+		/**
+		 * <code>null</code> if the columns are not part of the cursor.
+		 */
+		private int[] mColumnIndices;
+	}
+	
+	private Class<T> mClass;
+	private ModelAdapter<T> mModelAdapter;
+	private DatabaseAdapter mAdapter;
+	private List<Step> mSteps;
+	/**
+	 * Index of the primary key column. <code>-1</code> if it is 
+	 * not part of the cursor.
+	 */
+	private int mIdIndex = -1;
+	
+	/**
+	 * @param clazz		Class of the models.
+	 * @param c			{@link Cursor} the models will be created from.
+	 * @param adapter	{@link DatabaseAdapter} used to load fields, whose 
+	 * 					columns are missing in the cursor. If <code>null</code>
+	 * 					these fields are left untouched.
+	 */
+	public HydrationPlan(Class<T> clazz, Cursor c, DatabaseAdapter adapter) {
+		FieldPlan<T> plan = FieldPlan.get(clazz);
+		
+		mClass = clazz;
+		mModelAdapter = plan.getAdapter();
+		mAdapter = adapter;
+		mSteps = new ArrayList<Step>();
+		
+		T prototype = InstanceFactories.getPrototype(clazz);
+		
+		if(prototype == null) {
+			return;
+		}
+		
+		String[] fieldNames = plan.getFieldNames();
+		int[] dataFields = plan.getDataFields();
+		
+		for(int i = 0; i < dataFields.length; i++) {
+			DataField<?> field = (DataField<?>) mModelAdapter.getField(prototype, dataFields[i]);
+			
+			Step step = new Step();
+			step.mIndex = dataFields[i];
+			step.mFieldName = fieldNames[step.mIndex];
+			step.mColumnIndices = field.getColumnIndices(c, step.mFieldName);
+			
+			if(step.mFieldName.equals(Model.PK) && step.mColumnIndices != null) {
+				mIdIndex = step.mColumnIndices[0];
+			}
+			
+			mSteps.add(step);
+		}
+	}
+	
+	/**
+	 * Creates a model from the row the cursor currently points at. 
+	 * If a {@link Session} is open and already knows the model, 
+	 * the known instance is returned instead. 
+	 * 
+	 * @param c	{@link Cursor} the plan has been created for.
+	 * @return An instance of the model.
+	 */
+	public T createObject(Cursor c) {
+		Session session = Session.getCurrent();
+		
+		if(session != null && mIdIndex != -1) {
+			T known = session.get(mClass, c.getInt(mIdIndex));
+			
+			if(known != null) {
+				return known;
+			}
+		}
+		
+		T object = Model.getInstace(mClass);
+		
+		if(object == null) {
+			return null;
+		}
+		
+		for(int i = 0, size = mSteps.size(); i < size; i++) {
+			Step step = mSteps.get(i);
+			DataField<?> field = (DataField<?>) mModelAdapter.getField(object, step.mIndex);
+			
+			if(step.mColumnIndices != null) {
+				field.set(c, step.mFieldName, step.mColumnIndices);
+			} else if(mAdapter != null) {
+				field.defer(new FieldLoader(mAdapter, object, step.mFieldName));
+			}
+			
+			field.markClean();
+		}
+		
+		object.markPersisted();
+		
+		if(session != null) {
+			session.put(object);
+		}
+		
+		return object;
+	}
+}
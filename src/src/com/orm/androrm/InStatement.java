@@ -23,6 +23,7 @@
 package com.orm.androrm;
 
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -40,18 +41,68 @@ import org.apache.commons.lang3.StringUtils;
 public class InStatement extends Statement {
 
 	private List<Object> mValues;
+	/**
+	 * Select providing the values. Replaces {@link InStatement#mValues}, 
+	 * if set.
+	 */
+	private SelectStatement mSelect;
 	
 	public InStatement(String key, List<Object> values) {
 		mKey = key;
 		mValues = values;
 	}
 	
+	/**
+	 * Matches all values returned by the given select, which
+	 * has to select exactly one column. 
+	 * 
+	 * @param key		Database column.
+	 * @param select	{@link SelectStatement} providing the values.
+	 */
+	public InStatement(String key, SelectStatement select) {
+		mKey = key;
+		mSelect = select;
+	}
+	
+	@Override
+	protected void collectTables(Set<String> tables) {
+		if(mSelect != null) {
+			mSelect.collectTables(tables);
+		}
+	}
+	
 	private String getList() {
 		return StringUtils.join(mValues, "','");
 	}
 	
+	@Override
+	public String toSQL(List<String> args) {
+		if(mSelect != null) {
+			return mKey + " IN (" + mSelect.toSQL(args) + ")";
+		}
+		
+		String placeholders = "?";
+		
+		if(mValues.isEmpty()) {
+			args.add("");
+		} else {
+			args.add(String.valueOf(mValues.get(0)));
+			
+			for(int i = 1, size = mValues.size(); i < size; i++) {
+				placeholders += ",?";
+				args.add(String.valueOf(mValues.get(i)));
+			}
+		}
+		
+		return mKey + " IN (" + placeholders + ")";
+	}
+	
 	@Override
 	public String toString() {
+		if(mSelect != null) {
+			return mKey + " IN (" + mSelect.toString() + ")";
+		}
+		
 		return mKey + " IN ('" + getList() + "')";
 	}
 	
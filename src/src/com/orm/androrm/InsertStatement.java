@@ -0,0 +1,134 @@
+/**
+ * 	Copyright (c) 2010 Philipp Giese
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.orm.androrm;
+
+/**
+ * Implements an <code>INSERT</code> on the database. Values are
+ * not part of the statement. Instead a <code>?</code> placeholder is 
+ * rendered for each column, so that the statement can be compiled once
+ * and then be executed for many rows. 
+ * <br /><br />
+ * Example: <br />
+ * <pre>
+ * INSERT INTO `table` (foo, bar) VALUES (?, ?)
+ * </pre>
+ * 
+ * If a conflict column is given, the statement turns into an upsert, 
+ * that updates the existing row instead of failing. Note, that this
+ * requires SQLite 3.24 or newer.
+ * <br /><br />
+ * Example: <br />
+ * <pre>
+ * INSERT INTO `table` (mId, foo) VALUES (?, ?) ON CONFLICT(mId) DO UPDATE SET foo = excluded.foo
+ * </pre>
+ * 
+ * @author Philipp Giese
+ */
+public class InsertStatement implements Query {
+
+	private String mInto;
+	private String[] mColumns = new String[0];
+	private String mConflictColumn;
+	
+	private String buildConflict() {
+		if(mConflictColumn == null) {
+			return "";
+		}
+		
+		String updates = "";
+		
+		for(int i = 0, length = mColumns.length; i < length; i++) {
+			String column = mColumns[i];
+			
+			if(!column.equals(mConflictColumn)) {
+				if(updates.length() > 0) {
+					updates += ", ";
+				}
+				
+				updates += column + " = excluded." + column;
+			}
+		}
+		
+		if(updates.length() == 0) {
+			return " ON CONFLICT(" + mConflictColumn + ") DO NOTHING";
+		}
+		
+		return " ON CONFLICT(" + mConflictColumn + ") DO UPDATE SET " + updates;
+	}
+	
+	public InsertStatement columns(String... columns) {
+		mColumns = columns;
+		
+		return this;
+	}
+	
+	public String[] getColumns() {
+		return mColumns;
+	}
+	
+	public InsertStatement into(String table) {
+		mInto = table;
+		
+		return this;
+	}
+	
+	/**
+	 * Update the existing row, if inserting would violate the 
+	 * uniqueness of the given column. 
+	 * 
+	 * @param column	Unique column, usually {@link Model#PK}.
+	 * @return <code>this</code> for chaining.
+	 */
+	public InsertStatement onConflict(String column) {
+		mConflictColumn = column;
+		
+		return this;
+	}
+	
+	@Override
+	public String toString() {
+		if(mColumns.length == 0) {
+			/*
+			 * Rows without any columns still need a value in 
+			 * order to be inserted. 
+			 */
+			return "INSERT INTO `" + mInto + "` (" + Model.PK + ") VALUES (NULL)";
+		}
+		
+		String columns = "";
+		String placeholders = "";
+		
+		for(int i = 0, length = mColumns.length; i < length; i++) {
+			if(i > 0) {
+				columns += ", ";
+				placeholders += ", ";
+			}
+			
+			columns += mColumns[i];
+			placeholders += "?";
+		}
+		
+		return "INSERT INTO `" + mInto + "` (" + columns + ") VALUES (" + placeholders + ")"
+			+ buildConflict();
+	}
+}
@@ -0,0 +1,230 @@
+/**
+ * 	Copyright (c) 2010 Philipp Giese
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.orm.androrm;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process wide cache of models, that have been fetched by their id.
+ * Models are cached per database. {@link QuerySet#get(int)} and thus also {@link ForeignKeyField#get(android.content.Context)}
+ * look up models here before querying the database. 
+ * <br /><br />
+ * The cache is disabled by default. Enable it with 
+ * {@link InstanceCache#setSize(int)}. Cached models are shared by all
+ * callers, so they should only be changed in order to save them. Saving
+ * a model removes it from the cache. If it is saved within a transaction,
+ * it is removed once more, when the transaction ends. Deleting a row
+ * removes its model together with all models of the tables, that the
+ * delete may have cascaded to. 
+ * 
+ * @author Philipp Giese
+ */
+public abstract class InstanceCache {
+
+	private static int SIZE = 0;
+	private static int HITS = 0;
+	private static int MISSES = 0;
+	private static int EVICTIONS = 0;
+	
+	private static final Map<String, Model> MODELS = new LinkedHashMap<String, Model>(16, 0.75f, true) {
+		
+		private static final long serialVersionUID = 7408213950873226517L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Model> eldest) {
+			if(size() > SIZE) {
+				EVICTIONS++;
+				
+				return true;
+			}
+			
+			return false;
+		}
+	};
+	
+	/**
+	 * Creates the key a model is cached under.
+	 * 
+	 * @param database	Name of the database.
+	 * @param table		Table of the model.
+	 * @param id		Id of the model.
+	 */
+	static String getKey(String database, String table, int id) {
+		return getKey(database, table) + id;
+	}
+	
+	private static String getKey(String database, String table) {
+		return database + ":" + table + ":";
+	}
+	
+	/**
+	 * Removes all models from the cache.
+	 */
+	public static synchronized void clear() {
+		MODELS.clear();
+	}
+	
+	/**
+	 * Removes a single model from the cache. 
+	 * 
+	 * @param database	Name of the database.
+	 * @param table		Table of the model.
+	 * @param id		Id of the model.
+	 */
+	public static synchronized void evict(String database, String table, int id) {
+		evict(getKey(database, table, id));
+	}
+	
+	/**
+	 * Removes all models of the given tables from the cache.
+	 * 
+	 * @param database	Name of the database.
+	 * @param tables	Names of the tables.
+	 */
+	public static synchronized void evict(String database, Collection<String> tables) {
+		if(MODELS.isEmpty() || tables.isEmpty()) {
+			return;
+		}
+		
+		Iterator<String> keys = MODELS.keySet().iterator();
+		
+		while(keys.hasNext()) {
+			String key = keys.next();
+			
+			for(String table : tables) {
+				if(key.startsWith(getKey(database, table))) {
+					keys.remove();
+					break;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Removes a single model from the cache. 
+	 * 
+	 * @param key	Key of the model. See {@link InstanceCache#getKey(String, String, int)}.
+	 */
+	static synchronized void evict(String key) {
+		MODELS.remove(key);
+	}
+	
+	/**
+	 * Looks up a model. 
+	 * 
+	 * @param database	Name of the database.
+	 * @param clazz		Class of the model.
+	 * @param id		Id of the model.
+	 * 
+	 * @return The cached model or <code>null</code>.
+	 */
+	public static synchronized <T extends Model> T get(String database, Class<T> clazz, int id) {
+		if(SIZE <= 0) {
+			return null;
+		}
+		
+		Model model = MODELS.get(getKey(database, DatabaseBuilder.getTableName(clazz), id));
+		
+		if(clazz.isInstance(model)) {
+			HITS++;
+			
+			return clazz.cast(model);
+		}
+		
+		MISSES++;
+		
+		return null;
+	}
+	
+	/**
+	 * @return Number of models, that have been removed to make 
+	 * 			room for others.
+	 */
+	public static synchronized int getEvictions() {
+		return EVICTIONS;
+	}
+	
+	/**
+	 * @return Number of lookups, that found a model.
+	 */
+	public static synchronized int getHits() {
+		return HITS;
+	}
+	
+	/**
+	 * @return Number of lookups, that did not find a model.
+	 */
+	public static synchronized int getMisses() {
+		return MISSES;
+	}
+	
+	public static synchronized int getSize() {
+		return SIZE;
+	}
+	
+	/**
+	 * Adds a model to the cache, if the cache is enabled and the
+	 * model has been saved.
+	 * 
+	 * @param database	Name of the database, the model has been read from.
+	 * @param model		The model.
+	 */
+	public static synchronized void put(String database, Model model) {
+		if(SIZE > 0 && model.getId() != 0) {
+			MODELS.put(getKey(database, DatabaseBuilder.getTableName(model.getClass()), model.getId()), model);
+		}
+	}
+	
+	/**
+	 * Resets the hit, miss and eviction counters.
+	 */
+	public static synchronized void resetStatistics() {
+		HITS = 0;
+		MISSES = 0;
+		EVICTIONS = 0;
+	}
+	
+	/**
+	 * Sets the maximum number of cached models. If the cache is full, 
+	 * the least recently used model is removed. 0 disables the cache.
+	 * 
+	 * @param size	Maximum number of models.
+	 */
+	public static synchronized void setSize(int size) {
+		SIZE = size;
+		
+		if(SIZE <= 0) {
+			MODELS.clear();
+		}
+	}
+	
+	/**
+	 * @return Number of currently cached models.
+	 */
+	public static synchronized int size() {
+		return MODELS.size();
+	}
+}
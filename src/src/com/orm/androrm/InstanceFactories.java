@@ -0,0 +1,122 @@
+/**
+ * 	Copyright (c) 2010 Philipp Giese
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.orm.androrm;
+
+import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registry of the {@link InstanceFactory factories} for all model 
+ * classes. Also keeps one prototype instance per class, that is 
+ * used to read the fields of a class without creating a new instance
+ * each time. 
+ * 
+ * @author Philipp Giese
+ */
+public abstract class InstanceFactories {
+
+	/**
+	 * Creates models through their constructor without arguments. 
+	 * The constructor is only looked up once. 
+	 */
+	private static class ConstructorFactory<T extends Model> implements InstanceFactory<T> {
+		
+		private Constructor<T> mConstructor;
+		
+		public ConstructorFactory(Class<T> clazz) throws NoSuchMethodException {
+			mConstructor = clazz.getConstructor();
+		}
+		
+		@Override
+		public T newInstance() throws Exception {
+			return mConstructor.newInstance();
+		}
+	}
+	
+	private static final Map<Class<? extends Model>, InstanceFactory<?>> FACTORIES = new HashMap<Class<? extends Model>, InstanceFactory<?>>();
+	private static final Map<Class<? extends Model>, Model> PROTOTYPES = new HashMap<Class<? extends Model>, Model>();
+	
+	/**
+	 * Gets the factory for the given model class. If none has been
+	 * registered, the constructor of the class is used.
+	 * 
+	 * @param clazz	Class of the model.
+	 * @return {@link InstanceFactory} of the class.
+	 * @throws NoSuchMethodException	If the class has no public constructor
+	 * 									without arguments.
+	 */
+	@SuppressWarnings("unchecked")
+	public static synchronized <T extends Model> InstanceFactory<T> get(Class<T> clazz) throws NoSuchMethodException {
+		InstanceFactory<T> factory = (InstanceFactory<T>) FACTORIES.get(clazz);
+		
+		if(factory == null) {
+			factory = new ConstructorFactory<T>(clazz);
+			FACTORIES.put(clazz, factory);
+		}
+		
+		return factory;
+	}
+	
+	/**
+	 * Gets the prototype of the given model class. The prototype is 
+	 * shared and must only be used to inspect the fields of the class. 
+	 * It must neither be changed nor saved. 
+	 * 
+	 * @param clazz	Class of the model.
+	 * @return The prototype or <code>null</code> if the class can not
+	 * 			be instantiated.
+	 */
+	@SuppressWarnings("unchecked")
+	protected static synchronized <T extends Model> T getPrototype(Class<T> clazz) {
+		T prototype = (T) PROTOTYPES.get(clazz);
+		
+		if(prototype == null) {
+			prototype = Model.getInstace(clazz);
+			
+			if(prototype != null) {
+				PROTOTYPES.put(clazz, prototype);
+			}
+		}
+		
+		return prototype;
+	}
+	
+	/**
+	 * Registers a factory for the given model class. 
+	 * 
+	 * @param clazz		Class of the model.
+	 * @param factory	{@link InstanceFactory} for this class.
+	 */
+	public static synchronized <T extends Model> void register(Class<T> clazz, InstanceFactory<T> factory) {
+		FACTORIES.put(clazz, factory);
+	}
+	
+	/**
+	 * Forgets all factories and prototypes. 
+	 */
+	public static synchronized void reset() {
+		FACTORIES.clear();
+		PROTOTYPES.clear();
+	}
+}
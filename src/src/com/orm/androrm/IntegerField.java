@@ -68,7 +68,17 @@ public class IntegerField extends DataField<Integer> {
 	public void set(Cursor c, String fieldName) {
 		set(c.getInt(c.getColumnIndexOrThrow(fieldName)));
 	}
+	
+	@Override
+	protected void set(Cursor c, String fieldName, int[] columnIndices) {
+		set(c.getInt(columnIndices[0]));
+	}
 
+	@Override
+	protected Object readColumn(Cursor c, int columnIndex) {
+		return c.getInt(columnIndex);
+	}
+	
 	@Override
 	public void reset() {
 		mValue = 0;
@@ -22,6 +22,9 @@
  */
 package com.orm.androrm;
 
+import java.util.List;
+import java.util.Set;
+
 /**
  * This class is the abstract representation of a JOIN
  * statement. 
@@ -53,6 +56,32 @@ public class JoinStatement {
 				
 	}
 	
+	private String buildStatement(List<String> args) {
+		String left = mLeft.toSQL(args);
+		String right = mRight.toSQL(args);
+		
+		String join = "(" +
+				left + 
+			") AS " + mLeftAlias + 
+			" JOIN (" +
+				right +
+			") AS " + mRightAlias +
+			" ON " + 
+				mLeftAlias + "." + mLeftColumn + 
+				"=" +
+				mRightAlias + "." + mRightColumn;
+		
+		return join;
+	}
+	
+	/**
+	 * See {@link SelectStatement#collectTables(Set)}.
+	 */
+	protected void collectTables(Set<String> tables) {
+		mLeft.collectTables(tables);
+		mRight.collectTables(tables);
+	}
+	
 	/**
 	 * Creates the left side of the join from a subselect and 
 	 * masks it with the given alias. 
@@ -132,6 +161,13 @@ public class JoinStatement {
 		return right(select, as);
 	}
 	
+	/**
+	 * See {@link Statement#toSQL(List)}.
+	 */
+	public String toSQL(List<String> args) {
+		return buildStatement(args);
+	}
+	
 	@Override
 	public String toString() {
 		return buildStatement();
@@ -22,6 +22,8 @@
  */
 package com.orm.androrm;
 
+import java.util.List;
+
 /**
  * This class can be used to create LIKE statement
  * for queries on the database. 
@@ -53,6 +55,19 @@ public class LikeStatement extends Statement {
 		}
 	}
 	
+	@Override
+	public String toSQL(List<String> args) {
+		String pattern = mValue + "%";
+		
+		if(!mMatchBeginning) {
+			pattern = "%" + pattern;
+		}
+		
+		args.add(pattern);
+		
+		return mKey + " LIKE ?";
+	}
+	
 	@Override
 	public String toString() {
 		String stmt = mKey + " LIKE '";
@@ -32,6 +32,13 @@ import android.location.LocationManager;
  *
  */
 public class LocationField extends DataField<Location> {
+	
+	/**
+	 * Coordinates of the value, when it has been marked clean. 
+	 * Locations can be changed in place without calling set.
+	 */
+	private double mCleanLat;
+	private double mCleanLng;
 
 	public LocationField() {
 		mType = "numeric";
@@ -49,6 +56,31 @@ public class LocationField extends DataField<Location> {
 		return definition;
 	}
 	
+	@Override
+	protected String[] getColumnNames(String fieldName) {
+		return new String[] { fieldName + "Lat", fieldName + "Lng" };
+	}
+	
+	@Override
+	public boolean isDirty() {
+		if(super.isDirty()) {
+			return true;
+		}
+		
+		return mValue != null 
+			&& (mValue.getLatitude() != mCleanLat || mValue.getLongitude() != mCleanLng);
+	}
+	
+	@Override
+	protected void markClean() {
+		super.markClean();
+		
+		if(mValue != null) {
+			mCleanLat = mValue.getLatitude();
+			mCleanLng = mValue.getLongitude();
+		}
+	}
+	
 	@Override
 	public void putData(String fieldName, ContentValues values) {
 		double lat = 0.0;
@@ -68,13 +100,28 @@ public class LocationField extends DataField<Location> {
 		double lat = c.getDouble(c.getColumnIndexOrThrow(fieldName + "Lat"));
 		double lng = c.getDouble(c.getColumnIndexOrThrow(fieldName + "Lng"));
 		
+		set(lat, lng);
+	}
+	
+	@Override
+	protected void set(Cursor c, String fieldName, int[] columnIndices) {
+		set(c.getDouble(columnIndices[0]), c.getDouble(columnIndices[1]));
+	}
+	
+	private void set(double lat, double lng) {
 		Location l = new Location(LocationManager.GPS_PROVIDER);
 		l.setLatitude(lat);
 		l.setLongitude(lng);
 		
 		mValue = l;
+		markDirty();
 	}
 
+	@Override
+	protected Object readColumn(Cursor c, int columnIndex) {
+		return c.getDouble(columnIndex);
+	}
+	
 	@Override
 	public void reset() {
 		mValue = null;
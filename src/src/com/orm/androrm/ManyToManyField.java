@@ -60,24 +60,22 @@ extends AbstractToManyRelation<L, R> {
 		return tableNames.get(0) + "_" + tableNames.get(1);
 	}
 	
+	/**
+	 * The targets are selected by their ids, which are looked up in
+	 * the relation table by a subselect. This way the query set can
+	 * be filtered further like any other one. 
+	 */
 	@Override
 	public QuerySet<R> get(Context context, L origin) {
+		Filter filter = new Filter();
+		filter.in(Model.PK, getTargetIds(origin.getId()));
+		
 		QuerySet<R> querySet = new QuerySet<R>(context, mTargetClass);
-		querySet.injectQuery(getQuery(origin.getId()));
+		querySet.filter(filter);
 		
 		return querySet;
 	}
 	
-	private JoinStatement getJoin(String leftAlias, String rightAlias, int id) {
-		JoinStatement join = new JoinStatement();
-		
-		join.left(DatabaseBuilder.getTableName(mTargetClass), leftAlias)
-			.right(getRightJoinSide(id), rightAlias)
-			.on(Model.PK, DatabaseBuilder.getTableName(mTargetClass));
-		
-		return join;
-	}
-	
 	public ForeignKeyField<L> getLeftLinkDescriptor() {
 		return new ForeignKeyField<L>(mOriginClass);
 	}
@@ -86,20 +84,15 @@ extends AbstractToManyRelation<L, R> {
 		return new ForeignKeyField<R>(mTargetClass);
 	}
 	
-	private SelectStatement getQuery(int id) {
-		SelectStatement select = new SelectStatement();
-		
-		select.select("a.*")
-		  	  .from(getJoin("a", "b", id));
-		
-		return select;
-	}
-	
 	public String getRelationTableName() {
 		return mTableName;
 	}
 	
-	private SelectStatement getRightJoinSide(int id) {
+	/**
+	 * @return Select of the ids of all targets linked to the origin
+	 * 			with the given id.
+	 */
+	private SelectStatement getTargetIds(int id) {
 		String leftTable = DatabaseBuilder.getTableName(mOriginClass);
 		String rightTable = DatabaseBuilder.getTableName(mTargetClass);
 		
@@ -108,18 +101,9 @@ extends AbstractToManyRelation<L, R> {
 		
 		SelectStatement relation = new SelectStatement();
 		relation.from(mTableName)
-				.select(leftTable, rightTable)
+				.select(rightTable)
 		 		.where(where);
 		
-		JoinStatement join = new JoinStatement();
-		join.left(relation, "left")
-			.right(rightTable, "right")
-			.on(rightTable, Model.PK);
-		
-		SelectStatement select = new SelectStatement();
-		select.from(join)
-			  .select("left." + rightTable + " AS " + rightTable);
-		
-		return select;
+		return relation;
 	}
 }
@@ -22,10 +22,11 @@
  */
 package com.orm.androrm;
 
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import android.content.ContentValues;
 import android.content.Context;
@@ -84,37 +85,6 @@ public abstract class Model {
 	
 	public static final String COUNT = "item_count";
 	
-	/**
-	 * Assigns a value gathered from the database to the
-	 * instance <code>object</b> of type T. Due to the nature
-	 * of this ORM only fields applicable for serialization
-	 * will be considered.
-	 * 
-	 * @param <T>		Type of the object.
-	 * @param field		Field of the object, that a value shall be assigned to.
-	 * @param object	Object instance of type <T>.
-	 * @param c			Database {@link Cursor}
-	 * 
-	 * @throws IllegalArgumentException
-	 * @throws IllegalAccessException
-	 */
-	private static final <T extends Model> void assignFieldValue(
-			
-			Field 	field, 
-			T 		object,
-			Cursor 	c
-			
-	) throws IllegalArgumentException, IllegalAccessException {
-		
-		Object o = field.get(object);
-		
-		if(o instanceof DataField) {
-			DataField<?> f = (DataField<?>) o;
-		
-			f.set(c, field.getName());
-		}
-	}
-	
 	protected static final <T extends Model> T createObject(
 			
 			Class<T> clazz,
@@ -122,35 +92,27 @@ public abstract class Model {
 			
 	) {
 		
-		T object = getInstace(clazz);
-		
-		try {
-			fillUpData(object, clazz, c);
-		} catch(IllegalAccessException e) {
-			Log.e(TAG, "exception thrown while filling instance of " 
-					+ clazz.getSimpleName()
-					+ " with data.", e);
-		}
-		
-		return object;
+		return createObject(clazz, c, null);
 	}
 	
-	private static final <T extends Model> void fillUpData(
+	/**
+	 * Creates an instance of the given class from the current row
+	 * of the cursor. Fields, whose columns are not part of the 
+	 * cursor, will be loaded on first access using the given adapter.
+	 * If no adapter is given, they are left untouched. 
+	 * <br /><br />
+	 * To create models from several rows of the same cursor use a
+	 * {@link HydrationPlan} instead. 
+	 */
+	protected static final <T extends Model> T createObject(
 			
-			T 			instance, 
-			Class<T> 	clazz, 
-			Cursor 		c
+			Class<T> 		clazz,
+			Cursor	 		c,
+			DatabaseAdapter	adapter
 			
-	) throws IllegalArgumentException, IllegalAccessException {
+	) {
 		
-		if(clazz != null && clazz.isInstance(instance)) {
-			
-			for(Field field: DatabaseBuilder.getFields(clazz, instance)) {
-				assignFieldValue(field, instance, c);
-			}
-			
-			fillUpData(instance, getSuperclass(clazz), c);
-		}
+		return new HydrationPlan<T>(clazz, c, adapter).createObject(c);
 	}
 	
 	protected static final <O extends Model, T extends Model> String getBackLinkFieldName(
@@ -160,42 +122,18 @@ public abstract class Model {
 			
 	) {
 		
-		Field fk = null;
-		
-		try {
-			fk = getForeignKeyField(targetClass, originClass, getInstace(originClass));
-		}  catch (IllegalAccessException e) {
-			Log.e(TAG, "an exception has been thrown trying to gather the foreign key field pointing to " 
-					+ targetClass.getSimpleName() 
-					+ " from origin class " 
-					+ originClass.getSimpleName(), e);
-		}
+		FieldPlan<O> plan = FieldPlan.get(originClass);
+		int index = plan.getForeignKey(targetClass);
 		
-		if(fk != null) {
-			return fk.getName();
+		if(index != -1) {
+			return plan.getFieldNames()[index];
 		}
 		
 		return null;
 	}
 	
-	private static final <T extends Model> List<String> getEligableFields(
-			
-			Class<? extends Model> 	clazz, 
-			T 						instance
-			
-	) {
-		
-		List<String> eligableFields = new ArrayList<String>();
-		
-		if(clazz != null) {
-			for(Field field: DatabaseBuilder.getFields(clazz, instance)) {
-				eligableFields.add(field.getName());
-			}
-			
-			eligableFields.addAll(getEligableFields(getSuperclass(clazz), instance));
-		}
-		
-		return eligableFields;
+	private static final List<String> getEligableFields(Class<? extends Model> clazz) {
+		return Arrays.asList(FieldPlan.get(clazz).getFieldNames());
 	}
 	
 	private static final <T extends Model> void raiseFieldExecption(T instance, String fieldName) {
@@ -204,7 +142,7 @@ public abstract class Model {
 				+ " was found in class " 
 				+ instance.getClass().getSimpleName() 
 				+"! Choices are: " 
-				+ getEligableFields(instance.getClass(), instance).toString());
+				+ getEligableFields(instance.getClass()).toString());
 	}
 	
 	protected static final <T extends Model> Field getField(
@@ -219,12 +157,9 @@ public abstract class Model {
 		
 		if(clazz != null) {
 			if(ModelCache.knowsFields(clazz)) {
-				if(ModelCache.modelHasField(clazz, fieldName)) {
-					field = ModelCache.getField(clazz, fieldName);
-				}
-			}
-			
-			if(field == null) {
+				// the cache also knows all fields of the superclasses
+				field = ModelCache.getField(clazz, fieldName);
+			} else {
 				field = getField(getSuperclass(clazz), instance, fieldName);
 			}
 			
@@ -244,58 +179,23 @@ public abstract class Model {
 			Class<O> 	originClass, 
 			Class<T> 	target
 			
-	) throws IllegalArgumentException, IllegalAccessException {
-		
-		if(originClass != null && originClass.isInstance(origin)) {
-			Field fkField = getForeignKeyField(target, originClass, origin);
-			
-			if(fkField != null) {
-				return (ForeignKeyField<T>) fkField.get(origin);
-			}
-		}
-		
-		return null;
-	}
-	
-	private static final <T extends Model, O extends Model> Field getForeignKeyField(
-			
-			Class<T> 	target, 
-			Class<O> 	originClass, 
-			O 			origin
-			
-	) throws IllegalArgumentException, IllegalAccessException {
+	) {
 		
-		Field fk = null;
+		FieldPlan<O> plan = FieldPlan.get(originClass);
+		int index = plan.getForeignKey(target);
 		
-		if(originClass != null && originClass.isInstance(origin)) {
-			for(Field field: DatabaseBuilder.getFields(originClass, origin)) {
-				Object f = field.get(origin);
-				
-				if(f instanceof ForeignKeyField) {
-					ForeignKeyField<?> tmp = (ForeignKeyField<?>) f;
-					Class<? extends Model> t = tmp.getTarget();
-					
-					if(t.equals(target)) {
-						fk = field;
-						break;
-					}
-				}
-			}
-			
-			if(fk == null) {
-				fk = getForeignKeyField(target, getSuperclass(originClass), origin);
-			}
+		if(index != -1) {
+			return (ForeignKeyField<T>) plan.getAdapter().getField(origin, index);
 		}
 		
-		return fk;
+		return null;
 	}
 	
 	protected static final <T extends Model> T getInstace(Class<T> clazz) {
 		T instance = null;
 		
 		try {
-			Constructor<T> constructor = clazz.getConstructor();
-			instance = constructor.newInstance();
+			instance = InstanceFactories.get(clazz).newInstance();
 		} catch(Exception e) {
 			Log.e(TAG, "exception thrown while trying to create representation of " 
 					+ clazz.getSimpleName(), e);
@@ -325,16 +225,7 @@ public abstract class Model {
 			
 	) throws NoSuchFieldException {
 		
-		ForeignKeyField<T> fk = null;
-		
-		try {
-			fk = getForeignKey(origin, originClass, targetClass);
-		} catch(IllegalAccessException e) {
-			Log.e(TAG, "an exception was thrown trying to gather a foreign key field pointing to " 
-					+ targetClass.getSimpleName() 
-					+ " on an instance of class " 
-					+ originClass.getSimpleName(), e);
-		}
+		ForeignKeyField<T> fk = getForeignKey(origin, originClass, targetClass);
 		
 		if(fk != null) {
 			fk.set(target);
@@ -344,11 +235,20 @@ public abstract class Model {
 					+ " was found in class " 
 					+ originClass.getSimpleName() 
 					+"! Choices are: " 
-					+ getEligableFields(originClass, origin).toString());
+					+ getEligableFields(originClass).toString());
 		}
 	}
 
 	protected PrimaryKeyField mId;
+	/**
+	 * Id of the row, that holds the values of all fields, which are
+	 * not dirty. <code>0</code> if no such row is known. 
+	 */
+	private int mPersistedId;
+	/**
+	 * See {@link DatabaseAdapter#getLastDelete(String)}.
+	 */
+	private int mPersistedDelete;
 	
 	public Model() {
 		mId = new PrimaryKeyField();
@@ -358,61 +258,98 @@ public abstract class Model {
 		mId = new PrimaryKeyField(!suppressAutoincrement);
 	}
 	
-	private <T extends Model> void collectData(
-			
-			Context 		context, 
-			ContentValues 	values, 
-			Class<T> 		clazz
-			
-	) throws IllegalArgumentException, IllegalAccessException {
-		
-		if(clazz != null && clazz.isInstance(this)) {
-			for(Field field: DatabaseBuilder.getFields(clazz, this)) {
-				Object o = field.get(this);
-				String fieldName = field.getName();
-				
-				putValue(o, fieldName, values);
+	/**
+	 * Puts the values of all database fields into the given
+	 * {@link ContentValues}. 
+	 */
+	void collectValues(ContentValues values) {
+		collectValues(values, false);
+	}
+	
+	/**
+	 * @param values		{@link ContentValues} the values are put into.
+	 * @param onlyDirty		If set, only fields, that have been changed, 
+	 * 						are collected. 
+	 */
+	private void collectValues(ContentValues values, boolean onlyDirty) {
+		FieldPlan<Model> plan = getPlan();
+		ModelAdapter<Model> adapter = plan.getAdapter();
+		String[] fieldNames = plan.getFieldNames();
+		int[] dataFields = plan.getDataFields();
+		
+		for(int i = 0; i < dataFields.length; i++) {
+			int index = dataFields[i];
+			DataField<?> field = (DataField<?>) adapter.getField(this, index);
+			
+			if(!onlyDirty || field.isDirty()) {
+				putValue(field, fieldNames[index], values);
 			}
-			
-			collectData(context, values, getSuperclass(clazz));
 		}
 	}
 	
 	public <T extends Model> boolean delete(Context context) {
+		if(deleteRow(context)) {
+			return clearAfterDelete();
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Removes the row of this instance from the database, but 
+	 * leaves the instance untouched. 
+	 * 
+	 * @return <code>true</code> if a row has been deleted.
+	 */
+	boolean deleteRow(Context context) {
 		if(getId() != 0) {
-			Where where = new Where();
-			where.and(PK, getId());
-			
-			DatabaseAdapter adapter = new DatabaseAdapter(context);
-			int affectedRows = adapter.delete(DatabaseBuilder.getTableName(getClass()), where);
+			DatabaseAdapter adapter = DatabaseAdapter.getInstance(context);
+			int affectedRows = adapter.delete(DatabaseBuilder.getTableName(getClass()), getId());
 			
-			if(affectedRows != 0) {
-				mId.set(0);
-				
-				return resetFields();
-			}
+			return affectedRows != 0;
 		}
 		
 		return false;
 	}
 	
-	private <T extends Model> boolean resetFields() {
-		List<Field> fields = DatabaseBuilder.getFields(getClass(), this);
+	/**
+	 * Resets this instance after its row has been deleted.
+	 */
+	boolean clearAfterDelete() {
+		Session session = Session.getCurrent();
 		
-		try {
-			for(Field field : fields) {
-				Object o = field.get(this);
-				
-				if(o instanceof AndrormField) {
-					AndrormField f = (AndrormField) o;
-					f.reset();
-				}
+		if(session != null) {
+			session.remove(this);
+		}
+		
+		mId.set(0);
+		mPersistedId = 0;
+		
+		return resetFields();
+	}
+	
+	private boolean resetFields() {
+		ModelAdapter<Model> adapter = getPlan().getAdapter();
+		
+		for(int i = 0, length = adapter.getFieldNames().length; i < length; i++) {
+			AndrormField f = adapter.getField(this, i);
+			
+			if(f == null) {
+				return false;
 			}
 			
-			return true;
-		} catch(IllegalAccessException e) {
-			return false;
+			f.reset();
+			
+			if(f instanceof DataField) {
+				DataField<?> field = (DataField<?>) f;
+				
+				// there is no row left to load a deferred value from
+				field.defer(null);
+				field.markDirty();
+			}
 		}
+		
+		return true;
 	}
 	
 	@Override
@@ -430,10 +367,164 @@ public abstract class Model {
 		return false;
 	}
 	
+	/**
+	 * @return The {@link FieldPlan} of the class of this instance.
+	 */
+	@SuppressWarnings("unchecked")
+	private FieldPlan<Model> getPlan() {
+		return (FieldPlan<Model>) FieldPlan.get(getClass());
+	}
+	
 	public int getId() {
 		return mId.get();
 	}
 	
+	/**
+	 * @return 	<code>true</code> if this instance has to be written to
+	 * 			the database, because it has never been saved or one of
+	 * 			its fields or relations has been changed since.
+	 */
+	public boolean isDirty() {
+		return isDirty(new IdentityHashMap<Model, Boolean>());
+	}
+	
+	/**
+	 * @param visited	Models, that are already being checked. Linked
+	 * 					models can refer back to this instance, so each
+	 * 					one is only looked at once.
+	 */
+	private boolean isDirty(Map<Model, Boolean> visited) {
+		if(visited.put(this, Boolean.TRUE) != null) {
+			return false;
+		}
+		
+		if(!isPersisted()) {
+			return true;
+		}
+		
+		FieldPlan<Model> plan = getPlan();
+		ModelAdapter<Model> adapter = plan.getAdapter();
+		int[] dataFields = plan.getDataFields();
+		
+		for(int i = 0; i < dataFields.length; i++) {
+			if(((DataField<?>) adapter.getField(this, dataFields[i])).isDirty()) {
+				return true;
+			}
+		}
+		
+		int[] relations = plan.getRelations();
+		
+		for(int i = 0; i < relations.length; i++) {
+			if(isDirty(adapter.getField(this, relations[i]), visited)) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Saving a one to many or one to one relation also saves the
+	 * linked models. So such a relation has to be written, as long 
+	 * as one of these models has not been saved yet or has changed.
+	 */
+	private static boolean isDirty(AndrormField relation, Map<Model, Boolean> visited) {
+		if(relation instanceof AbstractToManyRelation) {
+			AbstractToManyRelation<?, ?> r = (AbstractToManyRelation<?, ?>) relation;
+			
+			if(r.isDirty()) {
+				return true;
+			}
+			
+			if(relation instanceof OneToManyField) {
+				for(Model target : r.getCachedValues()) {
+					if(isDirty(target, visited)) {
+						return true;
+					}
+				}
+			}
+			
+			return false;
+		}
+		
+		if(relation instanceof OneToOneField) {
+			OneToOneField<?, ?> r = (OneToOneField<?, ?>) relation;
+			
+			return r.isDirty() || isDirty(r.getCachedValue(), visited);
+		}
+		
+		return true;
+	}
+	
+	private static boolean isDirty(Model target, Map<Model, Boolean> visited) {
+		if(target == null) {
+			return false;
+		}
+		
+		return target.getId() == 0 || target.isDirty(visited);
+	}
+	
+	/**
+	 * Marks all fields and relations as saved to the row with
+	 * the current id. 
+	 */
+	void markClean() {
+		FieldPlan<Model> plan = getPlan();
+		ModelAdapter<Model> adapter = plan.getAdapter();
+		int[] dataFields = plan.getDataFields();
+		
+		for(int i = 0; i < dataFields.length; i++) {
+			((DataField<?>) adapter.getField(this, dataFields[i])).markClean();
+		}
+		
+		int[] relations = plan.getRelations();
+		
+		for(int i = 0; i < relations.length; i++) {
+			AndrormField relation = adapter.getField(this, relations[i]);
+			
+			if(relation instanceof AbstractToManyRelation) {
+				((AbstractToManyRelation<?, ?>) relation).markClean();
+			}
+			
+			if(relation instanceof OneToOneField) {
+				((OneToOneField<?, ?>) relation).markClean();
+			}
+		}
+		
+		markPersisted();
+	}
+	
+	/**
+	 * Remembers, that the fields, which are not dirty, hold the 
+	 * values of the row with the current id. 
+	 */
+	void markPersisted() {
+		mPersistedId = getId();
+		mPersistedDelete = DatabaseAdapter.getLastDelete(DatabaseBuilder.getTableName(getClass()));
+	}
+	
+	void setId(int id) {
+		mId.set(id);
+	}
+	
+	/**
+	 * @return <code>true</code> if the database assigns the ids
+	 * 			of new rows.
+	 */
+	boolean isAutoincrement() {
+		return mId.isAutoincrement();
+	}
+	
+	/**
+	 * @return <code>true</code> if the row with the current id is
+	 * 			known to exist.
+	 */
+	boolean isPersisted() {
+		return mPersistedId != 0 
+			&& mPersistedId == getId()
+			&& mPersistedDelete == DatabaseAdapter.getLastDelete(DatabaseBuilder.getTableName(getClass()));
+	}
+	
 	private boolean handledByPrimaryKey(Object field) {
 		if(field instanceof PrimaryKeyField) {
 			PrimaryKeyField pk = (PrimaryKeyField) field;
@@ -448,32 +539,33 @@ public abstract class Model {
 		return getId() + getClass().getSimpleName().hashCode();
 	}
 
-	private <T extends Model, O extends Model> void persistRelations(
-			
-			Context	 context, 
-			Class<T> clazz
+	private void persistRelations(Context context) throws NoSuchFieldException {
+		FieldPlan<Model> plan = getPlan();
+		ModelAdapter<Model> adapter = plan.getAdapter();
+		int[] relations = plan.getRelations();
+		boolean persisted = isPersisted();
+		Map<Model, Boolean> visited = new IdentityHashMap<Model, Boolean>();
+		visited.put(this, Boolean.TRUE);
+		
+		for(int i = 0; i < relations.length; i++) {
+			int index = relations[i];
+			AndrormField o = adapter.getField(this, index);
+			
+			if(persisted && !isDirty(o, visited)) {
+				continue;
+			}
 			
-	) throws IllegalArgumentException, IllegalAccessException, NoSuchFieldException {
-		
-		if(clazz != null && clazz.isInstance(this)) {
+			if(o instanceof ManyToManyField) {
+				saveM2MToDatabase(context, adapter.getDeclaringClass(index), o);
+			}
 			
-			for(Field field: DatabaseBuilder.getFields(clazz, this)) {
-				Object o = field.get(this);
-				
-				if(o instanceof ManyToManyField) {
-					saveM2MToDatabase(context, clazz, o);
-				}
-				
-				if(o instanceof OneToManyField) {
-					saveO2MToDatabase(context, o);
-				}
-				
-				if(o instanceof OneToOneField) {
-					saveO2OToDatabase(context, o);
-				}
+			if(o instanceof OneToManyField) {
+				saveO2MToDatabase(context, o);
 			}
 			
-			persistRelations(context, getSuperclass(clazz));
+			if(o instanceof OneToOneField) {
+				saveO2OToDatabase(context, o);
+			}
 		}
 	}
 	
@@ -489,6 +581,16 @@ public abstract class Model {
 			&& !handledByPrimaryKey(field)) {
 			
 			DataField<?> f = (DataField<?>) field;
+			
+			if(f.isDeferred()) {
+				/*
+				 * The value has never been loaded and thus can not
+				 * have been changed. Writing it would overwrite the
+				 * value in the database.
+				 */
+				return;
+			}
+			
 			f.putData(fieldName, values);
 		}
 	}
@@ -516,35 +618,104 @@ public abstract class Model {
 	
 	private <T extends Model> boolean save(
 			
+			final Context 		context, 
+			final int 			id, 
+			final ContentValues values
+			
+	) {
+		
+		final int previousId = getId();
+		
+		if(id != 0 && id == mPersistedId && !isDirty()) {
+			// nothing has changed since the last save
+			return true;
+		}
+		
+		DatabaseAdapter databaseAdapter = DatabaseAdapter.getInstance(context);
+		
+		/*
+		 * The row and all of its relations are written in one 
+		 * transaction. This way a failing relation does not leave 
+		 * a half saved model behind and SQLite only has to sync
+		 * once instead of once per statement. 
+		 */
+		boolean success = databaseAdapter.runInTransaction(new TransactionCallback() {
+			
+			@Override
+			public boolean run(DatabaseAdapter adapter) {
+				return saveInTransaction(context, adapter, id, values);
+			}
+		});
+		
+		if(!success && previousId == 0) {
+			/*
+			 * The insert has been rolled back, so the id
+			 * that has been assigned is no longer valid.
+			 */
+			mId.set(0);
+		}
+		
+		if(success) {
+			// within an outer transaction, only once it is committed
+			databaseAdapter.markClean(this);
+		}
+		
+		return success;
+	}
+	
+	private boolean saveInTransaction(
+			
 			Context 		context, 
+			DatabaseAdapter adapter,
 			int 			id, 
 			ContentValues 	values
 			
 	) {
 		
-		try {
-			collectData(context, values, getClass());
-		} catch(IllegalAccessException e) {
-			Log.e(TAG, "exception thrown while gathering data from object", e);
+		Where where = null;
+		
+		if(id != 0) {
+			where = new Where();
+			where.and(PK, id);
 		}
 		
-		Where where = new Where();
-		where.and(PK, id);
+		String table = DatabaseBuilder.getTableName(getClass());
+		boolean written = false;
 		
-		DatabaseAdapter adapter = new DatabaseAdapter(context);
-		int rowID = adapter.doInsertOrUpdate(DatabaseBuilder.getTableName(getClass()), values, where);
-
-		if(rowID == -1) {
-			mId.set(0);
-			return false;
-		} 
+		if(id != 0 && id == mPersistedId && isPersisted()) {
+			/*
+			 * The row exists and holds the values of all clean fields,
+			 * so only the changed columns have to be written. 
+			 */
+			ContentValues changes = new ContentValues();
+			collectValues(changes, true);
+			
+			written = changes.size() == 0 
+				|| adapter.update(table, changes, where) > 0;
+		}
+		
+		if(!written) {
+			// the row has to be written as a whole
+			collectValues(values);
+			
+			int rowID = adapter.doInsertOrUpdate(table, values, where);
+			
+			if(rowID == -1) {
+				mId.set(0);
+				return false;
+			} 
+			
+			if(getId() == 0) {
+				mId.set(rowID);
+			}
+		}
 		
-		if(getId() == 0) {
-			mId.set(rowID);
+		if(id != 0) {
+			adapter.evict(table, id);
 		}
 		
 		try {
-			persistRelations(context, getClass());
+			persistRelations(context);
 		} catch (Exception e) {
 			Log.e(TAG, "an exception has been thrown trying to save the relations for " 
 					+ getClass().getSimpleName(), e);
@@ -568,7 +739,7 @@ public abstract class Model {
 		ManyToManyField<T, ?> m = (ManyToManyField<T, ?>) field;
 		List<? extends Model> targets = m.getCachedValues();
 		
-		DatabaseAdapter adapter = new DatabaseAdapter(context);
+		DatabaseAdapter adapter = DatabaseAdapter.getInstance(context);
 		
 		for(Model target: targets) {
 			/*
@@ -0,0 +1,75 @@
+/**
+ * 	Copyright (c) 2010 Philipp Giese
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.orm.androrm;
+
+/**
+ * Gives the ORM access to the database fields of a model class. 
+ * All fields, including the ones of superclasses, are addressed by 
+ * their position in {@link ModelAdapter#getFieldNames()}. The primary
+ * key {@link Model#PK} is handled by the ORM itself and must not be 
+ * part of the adapter.
+ * <br /><br />
+ * Adapters, that access the fields directly, are generated by the 
+ * annotation processor <code>com.orm.androrm.processor.ModelAdapterProcessor</code>
+ * in <code>androrm-processor.jar</code>, if it is on the processor path
+ * while the models are compiled. They are named like the model class 
+ * with the suffix <code>$$ModelAdapter</code>, e.g. 
+ * <code>com.example.Product$$ModelAdapter</code>, and are picked up 
+ * automatically. 
+ * <br /><br />
+ * Adapters can also be written by hand, following the same naming 
+ * convention, or handed to {@link ModelAdapters#register(Class, ModelAdapter)}.
+ * Models without an adapter are accessed through reflection. 
+ * 
+ * @author Philipp Giese
+ *
+ * @param <T>	Type of the model.
+ */
+public interface ModelAdapter<T extends Model> {
+	
+	/**
+	 * Class the field at the given position has been declared in.
+	 * 
+	 * @param index	Position of the field.
+	 * @return Declaring class of the field.
+	 */
+	public Class<? extends Model> getDeclaringClass(int index);
+	
+	/**
+	 * Gets the field at the given position of a model.
+	 * 
+	 * @param model	Instance of the model.
+	 * @param index	Position of the field.
+	 * 
+	 * @return The field object. 
+	 */
+	public AndrormField getField(T model, int index);
+	
+	/**
+	 * Names of all database fields of the model class including
+	 * the ones of its superclasses. 
+	 * 
+	 * @return The field names.
+	 */
+	public String[] getFieldNames();
+}
@@ -0,0 +1,152 @@
+/**
+ * 	Copyright (c) 2010 Philipp Giese
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.orm.androrm;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import android.util.Log;
+
+/**
+ * Registry of the {@link ModelAdapter adapters} for all model classes.
+ * 
+ * @author Philipp Giese
+ */
+public abstract class ModelAdapters {
+
+	private static final String TAG = "ANDRORM:MODEL:ADAPTERS";
+	
+	/**
+	 * Suffix of the class name of adapters, that are looked up
+	 * by convention.
+	 */
+	public static final String SUFFIX = "$$ModelAdapter";
+	
+	/**
+	 * Puts the primary key in front of the fields of an adapter.
+	 */
+	private static class PrimaryKeyAdapter<T extends Model> implements ModelAdapter<T> {
+		
+		private ModelAdapter<T> mAdapter;
+		private String[] mFieldNames;
+		
+		public PrimaryKeyAdapter(ModelAdapter<T> adapter) {
+			String[] fieldNames = adapter.getFieldNames();
+			
+			mAdapter = adapter;
+			mFieldNames = new String[fieldNames.length + 1];
+			mFieldNames[0] = Model.PK;
+			
+			System.arraycopy(fieldNames, 0, mFieldNames, 1, fieldNames.length);
+		}
+		
+		@Override
+		public Class<? extends Model> getDeclaringClass(int index) {
+			if(index == 0) {
+				return Model.class;
+			}
+			
+			return mAdapter.getDeclaringClass(index - 1);
+		}
+		
+		@Override
+		public AndrormField getField(T model, int index) {
+			if(index == 0) {
+				return model.mId;
+			}
+			
+			return mAdapter.getField(model, index - 1);
+		}
+		
+		@Override
+		public String[] getFieldNames() {
+			return mFieldNames;
+		}
+	}
+	
+	private static final Map<Class<? extends Model>, ModelAdapter<?>> ADAPTERS = new HashMap<Class<? extends Model>, ModelAdapter<?>>();
+	
+	/**
+	 * Gets the adapter for the given model class. If no adapter has been
+	 * registered, an adapter named after the model class is looked up. 
+	 * If there is none, the fields are accessed through reflection. 
+	 * <br /><br />
+	 * The returned adapter also contains the primary key as its
+	 * first field. 
+	 * 
+	 * @param clazz	Class of the model.
+	 * @return {@link ModelAdapter} of the class.
+	 */
+	@SuppressWarnings("unchecked")
+	public static synchronized <T extends Model> ModelAdapter<T> get(Class<T> clazz) {
+		ModelAdapter<T> adapter = (ModelAdapter<T>) ADAPTERS.get(clazz);
+		
+		if(adapter == null) {
+			adapter = lookup(clazz);
+			
+			if(adapter == null) {
+				adapter = new ReflectionModelAdapter<T>(clazz);
+			}
+			
+			adapter = new PrimaryKeyAdapter<T>(adapter);
+			ADAPTERS.put(clazz, adapter);
+		}
+		
+		return adapter;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <T extends Model> ModelAdapter<T> lookup(Class<T> clazz) {
+		try {
+			Class<?> adapterClass = Class.forName(clazz.getName() + SUFFIX, true, clazz.getClassLoader());
+			
+			return (ModelAdapter<T>) adapterClass.newInstance();
+		} catch(ClassNotFoundException e) {
+			// no adapter provided for this class
+		} catch(Exception e) {
+			Log.e(TAG, "could not create adapter for " 
+					+ clazz.getSimpleName(), e);
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Registers an adapter for the given model class. 
+	 * 
+	 * @param clazz		Class of the model.
+	 * @param adapter	{@link ModelAdapter} for this class.
+	 */
+	public static synchronized <T extends Model> void register(Class<T> clazz, ModelAdapter<T> adapter) {
+		ADAPTERS.put(clazz, new PrimaryKeyAdapter<T>(adapter));
+		ModelCache.resetPlans();
+	}
+	
+	/**
+	 * Forgets all adapters, that have been looked up or registered.
+	 */
+	public static synchronized void reset() {
+		ADAPTERS.clear();
+		ModelCache.resetPlans();
+	}
+}
@@ -2,98 +2,163 @@ package com.orm.androrm;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Holds one {@link ModelMeta} for each model class, that has been
+ * registered. Lookups do not need any locking. Updates replace the 
+ * meta data of a class as a whole. 
+ * 
+ * @author Philipp Giese
+ */
 public abstract class ModelCache {
 	
-	private static List<Class<? extends Model>> KNOWN_MODELS = new ArrayList<Class<? extends Model>>();
-	
-	private static Map<Class<? extends Model>, List<TableDefinition>> TABLE_DEFINITIONS = new HashMap<Class<? extends Model>, List<TableDefinition>>();
-	
-	private static Map<Class<? extends Model>, List<String>> KNOWN_MODEL_FIELDS = new HashMap<Class<? extends Model>, List<String>>();
-	
-	private static Map<Class<? extends Model>, List<Field>> KNOWN_FIELD_INSTANCES = new HashMap<Class<? extends Model>, List<Field>>();
-	
-	private static Map<String, Field> FIELD_SHORTCUTS = new HashMap<String, Field>();
+	private static final ConcurrentHashMap<Class<? extends Model>, ModelMeta> MODELS = new ConcurrentHashMap<Class<? extends Model>, ModelMeta>();
 	
 	public static <T extends Model> boolean knowsModel(Class<T> clazz) {
-		return KNOWN_MODELS.contains(clazz);
+		return MODELS.containsKey(clazz);
 	}
 	
 	public static <T extends Model> boolean knowsFields(Class<T> clazz) {
-		if(knowsModel(clazz)) {
-			return !KNOWN_MODEL_FIELDS.get(clazz).isEmpty();
-		}
+		ModelMeta meta = MODELS.get(clazz);
 		
-		return false;
+		return meta != null && meta.getFields() != null;
 	}
 	
 	public static <T extends Model> void addModel(Class<T> clazz) {
-		if(knowsModel(clazz)) {
-			return;
+		if(!knowsModel(clazz)) {
+			MODELS.putIfAbsent(clazz, new ModelMeta(clazz));
 		}
-		
-		KNOWN_MODELS.add(clazz);
-		KNOWN_MODEL_FIELDS.put(clazz, new ArrayList<String>());
-		KNOWN_MODEL_FIELDS.put(clazz, new ArrayList<String>());
 	}
 	
 	public static <T extends Model> List<TableDefinition> getTableDefinitions(Class<T> clazz) {
-		if(knowsModel(clazz)) {
-			return TABLE_DEFINITIONS.get(clazz);
+		ModelMeta meta = MODELS.get(clazz);
+		
+		if(meta != null) {
+			return meta.getTableDefinitions();
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * @param clazz	Any class.
+	 * @return The table name of the class or <code>null</code> if
+	 * 			it is not a known model.
+	 */
+	public static String getTableName(Class<?> clazz) {
+		ModelMeta meta = MODELS.get(clazz);
+		
+		if(meta != null) {
+			return meta.getTableName();
 		}
 		
 		return null;
 	}
 	
 	public static <T extends Model> void setTableDefinitions(Class<T> clazz, List<TableDefinition> definitions) {
-		TABLE_DEFINITIONS.put(clazz, definitions);
+		ModelMeta meta;
+		
+		do {
+			addModel(clazz);
+			meta = MODELS.get(clazz);
+		} while(meta == null || !MODELS.replace(clazz, meta, meta.withTableDefinitions(definitions)));
 	}
 	
-	public static <T extends Model> void setModelFields(Class<T> clazz, List<Field> fields) {
-		if(knowsModel(clazz)) {		
-			for(Field field : fields) {
-				String fieldName = field.getName();
-				
-				KNOWN_MODEL_FIELDS.get(clazz).add(fieldName);
-				FIELD_SHORTCUTS.put(clazz.toString() + fieldName, field);
-			}
+	/**
+	 * Stores the database fields of a known model class. 
+	 * 
+	 * @param clazz		The model class.
+	 * @param fields	Fields declared by the class itself.
+	 * @param inherited	Fields of all of its superclasses, starting
+	 * 					with the direct superclass.
+	 */
+	public static <T extends Model> void setModelFields(
 			
-			KNOWN_FIELD_INSTANCES.put(clazz, fields);
-		}
+			Class<T> 	clazz, 
+			List<Field> fields, 
+			List<Field> inherited
+			
+	) {
+		
+		ModelMeta meta;
+		
+		do {
+			meta = MODELS.get(clazz);
+			
+			if(meta == null) {
+				return;
+			}
+		} while(!MODELS.replace(clazz, meta, meta.withFields(fields, inherited)));
 	}
 	
 	public static <T extends Model> List<Field> fieldsForModel(Class<T> clazz) {
-		if(knowsModel(clazz)) {
-			return KNOWN_FIELD_INSTANCES.get(clazz);
+		ModelMeta meta = MODELS.get(clazz);
+		
+		if(meta != null && meta.getFields() != null) {
+			return meta.getFields();
 		}
 		
 		return new ArrayList<Field>();
 	}
 	
+	/**
+	 * @return <code>true</code> if the class or one of its superclasses
+	 * 			has a database field with the given name.
+	 */
 	public static <T extends Model> boolean modelHasField(Class<T> clazz, String field) {
-		if(knowsFields(clazz)) {
-			return KNOWN_MODEL_FIELDS.get(clazz).contains(field);
-		}
-		
-		return false;
+		return getField(clazz, field) != null;
 	}
 	
 	public static <T extends Model> Field getField(Class<T> clazz, String fieldName) {
-		if(knowsFields(clazz)) {
-			return FIELD_SHORTCUTS.get(clazz.toString() + fieldName);
+		ModelMeta meta = MODELS.get(clazz);
+		
+		if(meta != null) {
+			return meta.getField(fieldName);
 		}
 		
 		return null;
 	}
 	
+	/**
+	 * @param clazz	The model class.
+	 * @return The {@link FieldPlan} of the class. It is built, if it
+	 * 			is not known yet.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T extends Model> FieldPlan<T> getPlan(Class<T> clazz) {
+		ModelMeta meta = MODELS.get(clazz);
+		
+		if(meta != null && meta.getPlan() != null) {
+			return (FieldPlan<T>) meta.getPlan();
+		}
+		
+		FieldPlan<T> plan = new FieldPlan<T>(clazz);
+		
+		do {
+			addModel(clazz);
+			meta = MODELS.get(clazz);
+		} while(meta == null || !MODELS.replace(clazz, meta, meta.withPlan(plan)));
+		
+		return plan;
+	}
+	
+	/**
+	 * Forgets the {@link FieldPlan} of all classes. Has to be called, 
+	 * whenever the {@link ModelAdapter} of a class changes.
+	 */
+	static void resetPlans() {
+		for(Class<? extends Model> clazz : MODELS.keySet()) {
+			ModelMeta meta;
+			
+			do {
+				meta = MODELS.get(clazz);
+			} while(meta != null && !MODELS.replace(clazz, meta, meta.withPlan(null)));
+		}
+	}
+	
 	public static void reset() {
-		KNOWN_MODELS.clear();
-		KNOWN_FIELD_INSTANCES.clear();
-		KNOWN_MODEL_FIELDS.clear();
-		TABLE_DEFINITIONS.clear();
-		FIELD_SHORTCUTS.clear();
+		MODELS.clear();
 	}
 }
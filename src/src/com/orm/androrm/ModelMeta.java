@@ -0,0 +1,180 @@
+/**
+ * 	Copyright (c) 2010 Philipp Giese
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.orm.androrm;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the ORM knows about a single model class. Instances 
+ * are immutable. Adding information creates a new instance, which 
+ * replaces the old one in the {@link ModelCache}. Therefore they can
+ * be read from any thread without locking.
+ * 
+ * @author Philipp Giese
+ */
+final class ModelMeta {
+
+	private final String mTableName;
+	/**
+	 * <code>null</code> until the definitions have been built.
+	 */
+	private final List<TableDefinition> mTableDefinitions;
+	/**
+	 * Database fields declared by the class itself. <code>null</code>
+	 * until they have been gathered.
+	 */
+	private final List<Field> mFields;
+	/**
+	 * Database fields of the class and all of its superclasses 
+	 * by name. Fields of subclasses hide the ones of their superclasses.
+	 */
+	private final Map<String, Field> mFieldIndex;
+	/**
+	 * Flat view on the fields of the class. <code>null</code> until
+	 * it has been built.
+	 */
+	private final FieldPlan<?> mPlan;
+	
+	public ModelMeta(Class<? extends Model> clazz) {
+		this(clazz.getSimpleName().toLowerCase(), 
+			 null, 
+			 null, 
+			 Collections.<String, Field>emptyMap(), 
+			 null);
+	}
+	
+	private ModelMeta(
+			
+			String 					tableName,
+			List<TableDefinition> 	tableDefinitions,
+			List<Field> 			fields,
+			Map<String, Field> 		fieldIndex,
+			FieldPlan<?> 			plan
+			
+	) {
+		
+		mTableName = tableName;
+		mTableDefinitions = tableDefinitions;
+		mFields = fields;
+		mFieldIndex = fieldIndex;
+		mPlan = plan;
+	}
+	
+	/**
+	 * @param name	Name of the field.
+	 * @return The field declared by the class or one of its superclasses.
+	 * 			<code>null</code> if there is no such field.
+	 */
+	public Field getField(String name) {
+		return mFieldIndex.get(name);
+	}
+	
+	/**
+	 * @return The fields declared by the class itself or <code>null</code>
+	 * 			if they are not known yet.
+	 */
+	public List<Field> getFields() {
+		return mFields;
+	}
+	
+	/**
+	 * @return The {@link FieldPlan} of the class or <code>null</code>
+	 * 			if it has not been built yet.
+	 */
+	public FieldPlan<?> getPlan() {
+		return mPlan;
+	}
+	
+	public List<TableDefinition> getTableDefinitions() {
+		return mTableDefinitions;
+	}
+	
+	public String getTableName() {
+		return mTableName;
+	}
+	
+	/**
+	 * @param fields	Database fields declared by the class.
+	 * @param inherited	Database fields of all superclasses. Fields of
+	 * 					subclasses have to come first.
+	 * 
+	 * @return A copy of this meta data, that knows the given fields.
+	 */
+	public ModelMeta withFields(List<Field> fields, List<Field> inherited) {
+		Field[] all = new Field[fields.size() + inherited.size()];
+		
+		int i = 0;
+		
+		for(Field field : fields) {
+			all[i++] = field;
+		}
+		
+		for(Field field : inherited) {
+			all[i++] = field;
+		}
+		
+		Map<String, Field> fieldIndex = new HashMap<String, Field>();
+		
+		for(Field field : all) {
+			if(!fieldIndex.containsKey(field.getName())) {
+				fieldIndex.put(field.getName(), field);
+			}
+		}
+		
+		return new ModelMeta(mTableName, 
+							 mTableDefinitions,
+							 Collections.unmodifiableList(Arrays.asList(fields.toArray(new Field[fields.size()]))),
+							 fieldIndex,
+							 mPlan);
+	}
+	
+	/**
+	 * @param plan	{@link FieldPlan} of the class. <code>null</code> 
+	 * 				to forget the current one.
+	 * @return A copy of this meta data, that knows the given plan.
+	 */
+	public ModelMeta withPlan(FieldPlan<?> plan) {
+		return new ModelMeta(mTableName, 
+							 mTableDefinitions, 
+							 mFields, 
+							 mFieldIndex, 
+							 plan);
+	}
+	
+	/**
+	 * @param definitions	Table definitions of the class.
+	 * @return A copy of this meta data, that knows the given definitions.
+	 */
+	public ModelMeta withTableDefinitions(List<TableDefinition> definitions) {
+		return new ModelMeta(mTableName, 
+							 definitions, 
+							 mFields, 
+							 mFieldIndex, 
+							 mPlan);
+	}
+}
@@ -44,6 +44,11 @@ implements OneToOneRelation<L, R> {
 	protected Class<L> mOriginClass;
 	protected Class<R> mTargetClass;
 	protected boolean isNullable;
+	/**
+	 * Set, if the value has been changed since the relation 
+	 * has been saved the last time.
+	 */
+	private boolean mDirty;
 
 	public OneToOneField(Class<L> origin, Class<R> target) {
 		this(origin, target, false);
@@ -82,6 +87,26 @@ implements OneToOneRelation<L, R> {
 	public void set(R value) {
 		if(value != null || isNullable) {
 			mValue = value;
+			mDirty = true;
+		}
+	}
+	
+	/**
+	 * @return <code>true</code> if the value has been changed
+	 * 			since the relation has been saved the last time.
+	 */
+	public boolean isDirty() {
+		return mDirty;
+	}
+	
+	/**
+	 * Marks the relation as saved. A value, that has not been saved
+	 * itself, could not be linked yet. In this case the relation 
+	 * stays dirty. 
+	 */
+	protected void markClean() {
+		if(mValue == null || mValue.getId() != 0) {
+			mDirty = false;
 		}
 	}
 
@@ -93,6 +118,7 @@ implements OneToOneRelation<L, R> {
 	@Override
 	public void reset() {
 		mValue = null;
+		mDirty = false;
 	}
 
 	@Override
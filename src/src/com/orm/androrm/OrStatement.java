@@ -22,6 +22,8 @@
  */
 package com.orm.androrm;
 
+import java.util.List;
+
 /**
  * @author Philipp Giese
  */
@@ -33,6 +35,11 @@ public class OrStatement extends ComposedStatement {
 		mSeparator = " OR ";
 	}
 	
+	@Override
+	public String toSQL(List<String> args) {
+		return "(" + super.toSQL(args) + ")";
+	}
+	
 	@Override
 	public String toString() {
 		String or = super.toString();
@@ -42,6 +42,21 @@ public class OrderBy {
 	 * @param col Name of the table column.
 	 */
 	public OrderBy(String... columns) {
+		this(true, columns);
+	}
+	
+	/**
+	 * Add an ORDER BY statement. See {@link OrderBy#OrderBy(String...)}.
+	 * <br /><br />
+	 * Columns, that are not compared case insensitive are ordered 
+	 * by their plain value. Only then SQLite is able to use an
+	 * index for the ordering. 
+	 * 
+	 * @param ignoreCase	<code>true</code> to compare the values of 
+	 * 						the columns case insensitive.
+	 * @param columns		Names of the table columns.
+	 */
+	public OrderBy(boolean ignoreCase, String... columns) {
 		boolean first = true;
 		
 		for(int i = 0, length = columns.length; i < length; i++) {
@@ -53,12 +68,19 @@ public class OrderBy {
 				mOrderBy = " ";
 			}
 			
+			String direction = " ASC";
+			
 			if(col.startsWith("-")) {
-				mOrderBy += "UPPER(" + col.substring(1) + ") DESC";
+				col = col.substring(1);
+				direction = " DESC";
 			} else if(col.startsWith("+")) {
-				mOrderBy += "UPPER(" + col.substring(1) + ") ASC";
+				col = col.substring(1);
+			}
+			
+			if(ignoreCase) {
+				mOrderBy += "UPPER(" + col + ")" + direction;
 			} else {
-				mOrderBy += "UPPER(" + col + ") ASC";
+				mOrderBy += col + direction;
 			}
 			
 			if(first) {
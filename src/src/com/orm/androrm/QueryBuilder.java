@@ -47,7 +47,7 @@ public class QueryBuilder {
 			
 	) {
 		
-		T instance = Model.getInstace(clazz);
+		T instance = InstanceFactories.getPrototype(clazz);
 		
 		if(instance != null) {
 			Object fieldInstance = getFieldInstance(clazz, instance, fields.get(0));
@@ -95,7 +95,7 @@ public class QueryBuilder {
 		if(fields.size() == 1) {
 			String fieldName = fields.get(0);
 			
-			T instance = Model.getInstace(clazz);
+			T instance = InstanceFactories.getPrototype(clazz);
 			
 			if(instance != null) {
 				Object o = getFieldInstance(clazz, instance, fieldName);
@@ -0,0 +1,447 @@
+/**
+ * 	Copyright (c) 2010 Philipp Giese
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.orm.androrm;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import android.database.AbstractWindowedCursor;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+
+/**
+ * Process wide cache of query results, keyed by the SQL of the query
+ * and its arguments. 
+ * <br /><br />
+ * Each table carries a write counter, that is increased whenever
+ * the {@link DatabaseAdapter} changes it. A cached result remembers 
+ * the counters of all tables, that its query read from, and is only 
+ * handed out as long as none of them has changed. 
+ * <br /><br />
+ * The cache is disabled by default. Enable it with 
+ * {@link QueryCache#setSize(int)}. 
+ * 
+ * @author Philipp Giese
+ */
+public abstract class QueryCache {
+
+	/**
+	 * Stands for all tables of a database. Every result depends on
+	 * it, so that changes to unknown tables invalidate everything.
+	 */
+	private static final String ALL_TABLES = "*";
+	
+	private static int SIZE = 0;
+	private static int MAX_ROWS = 500;
+	private static int HITS = 0;
+	private static int MISSES = 0;
+	
+	/**
+	 * Write counters of all tables, keyed by database and table name.
+	 */
+	private static final Map<String, Long> VERSIONS = new HashMap<String, Long>();
+	
+	private static final Map<String, Entry> RESULTS = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+		
+		private static final long serialVersionUID = -2613981367432785120L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			return size() > SIZE;
+		}
+	};
+	
+	/**
+	 * Write counters of the tables a query depends on. They have to 
+	 * be taken <b>before</b> the query is run. Otherwise a change, 
+	 * that happens while the query runs, would go unnoticed.
+	 */
+	static class Dependencies {
+		
+		private String[] mTables;
+		private long[] mVersions;
+	}
+	
+	private static class Entry {
+		
+		private Dependencies mDependencies;
+		private Object mResult;
+	}
+	
+	/**
+	 * Rows of a query result.
+	 */
+	private static class Rows {
+		
+		private String[] mColumns;
+		private List<Object[]> mRows;
+	}
+	
+	private static String getTableKey(String database, String table) {
+		return database + ":" + table;
+	}
+	
+	private static long getVersion(String key) {
+		Long version = VERSIONS.get(key);
+		
+		if(version == null) {
+			return 0;
+		}
+		
+		return version;
+	}
+	
+	private static boolean isValid(Dependencies dependencies) {
+		for(int i = 0; i < dependencies.mTables.length; i++) {
+			if(getVersion(dependencies.mTables[i]) != dependencies.mVersions[i]) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Removes all results from the cache. 
+	 */
+	public static synchronized void clear() {
+		RESULTS.clear();
+	}
+	
+	/**
+	 * @param database	Name of the database.
+	 * @param tables	Names of all tables, that a query reads from.
+	 * 
+	 * @return The current write counters of the given tables.
+	 */
+	static synchronized Dependencies getDependencies(String database, Collection<String> tables) {
+		Dependencies dependencies = new Dependencies();
+		dependencies.mTables = new String[tables.size() + 1];
+		dependencies.mVersions = new long[tables.size() + 1];
+		
+		int i = 0;
+		
+		for(String table : tables) {
+			dependencies.mTables[i++] = getTableKey(database, table);
+		}
+		
+		dependencies.mTables[i] = getTableKey(database, ALL_TABLES);
+		
+		for(i = 0; i < dependencies.mTables.length; i++) {
+			dependencies.mVersions[i] = getVersion(dependencies.mTables[i]);
+		}
+		
+		return dependencies;
+	}
+	
+	/**
+	 * @return Number of lookups, that found a valid result.
+	 */
+	public static synchronized int getHits() {
+		return HITS;
+	}
+	
+	/**
+	 * Creates the key a query is cached under.
+	 * 
+	 * @param database	Name of the database.
+	 * @param sql		The query with placeholders.
+	 * @param args		Values of the placeholders.
+	 */
+	static String getKey(String database, String sql, List<String> args) {
+		StringBuilder key = new StringBuilder(database);
+		key.append(':').append(sql);
+		
+		for(String arg : args) {
+			/*
+			 * Prefixing each argument with its length keeps 
+			 * different argument lists from creating the same key.
+			 */
+			key.append(':').append(arg.length()).append(':').append(arg);
+		}
+		
+		return key.toString();
+	}
+	
+	public static synchronized int getMaxRows() {
+		return MAX_ROWS;
+	}
+	
+	/**
+	 * @return Number of lookups, that did not find a valid result.
+	 */
+	public static synchronized int getMisses() {
+		return MISSES;
+	}
+	
+	/**
+	 * Looks up the single value of a query. 
+	 * 
+	 * @param key	Key of the query. See {@link QueryCache#getKey(String, String, List)}.
+	 * @return The value or <code>null</code> if it is not cached.
+	 */
+	static synchronized Long getLong(String key) {
+		Object result = get(key);
+		
+		if(result instanceof Long) {
+			return (Long) result;
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Looks up the rows of a query. 
+	 * 
+	 * @param key	Key of the query. See {@link QueryCache#getKey(String, String, List)}.
+	 * @return A new {@link Cursor} over the cached rows or <code>null</code>
+	 * 			if they are not cached.
+	 */
+	static synchronized Cursor getCursor(String key) {
+		Object result = get(key);
+		
+		if(!(result instanceof Rows)) {
+			return null;
+		}
+		
+		return getCursor((Rows) result);
+	}
+	
+	private static Object get(String key) {
+		if(SIZE <= 0) {
+			return null;
+		}
+		
+		Entry entry = RESULTS.get(key);
+		
+		if(entry != null && !isValid(entry.mDependencies)) {
+			RESULTS.remove(key);
+			entry = null;
+		}
+		
+		if(entry == null) {
+			MISSES++;
+			
+			return null;
+		}
+		
+		HITS++;
+		
+		return entry.mResult;
+	}
+	
+	public static synchronized int getSize() {
+		return SIZE;
+	}
+	
+	/**
+	 * Increases the write counter of a table. All results, that 
+	 * depend on it, become invalid. 
+	 * 
+	 * @param database	Name of the database.
+	 * @param table		Name of the table. <code>null</code> invalidates
+	 * 					all tables of the database. 
+	 */
+	static synchronized void invalidate(String database, String table) {
+		if(table == null) {
+			table = ALL_TABLES;
+		}
+		
+		String key = getTableKey(database, table);
+		VERSIONS.put(key, getVersion(key) + 1);
+	}
+	
+	/**
+	 * @return <code>true</code> if results are cached.
+	 */
+	public static synchronized boolean isEnabled() {
+		return SIZE > 0;
+	}
+	
+	/**
+	 * Caches the single value of a query.
+	 * 
+	 * @param key			Key of the query.
+	 * @param dependencies	Write counters taken before the query was run.
+	 * @param value			Result of the query.
+	 */
+	static synchronized void putLong(String key, Dependencies dependencies, long value) {
+		put(key, dependencies, Long.valueOf(value));
+	}
+	
+	/**
+	 * Reads all rows of the given cursor and caches them. Results
+	 * with more than {@link QueryCache#getMaxRows()} rows are not cached. 
+	 * 
+	 * @param key			Key of the query.
+	 * @param dependencies	Write counters taken before the query was run.
+	 * @param c				{@link Cursor} with the result, that has not been moved yet.
+	 * 
+	 * @return 	A {@link Cursor} with the rows of the result. If they have been 
+	 * 			cached, the given one has been closed.
+	 */
+	static Cursor putCursor(String key, Dependencies dependencies, Cursor c) {
+		Rows rows;
+		
+		try {
+			rows = readRows(c, getMaxRows());
+		} catch(RuntimeException e) {
+			c.close();
+			throw e;
+		}
+		
+		if(rows == null) {
+			// too many rows, the cursor is handed out as it is
+			c.moveToPosition(-1);
+			return c;
+		}
+		
+		c.close();
+		put(key, dependencies, rows);
+		
+		return getCursor(rows);
+	}
+	
+	/**
+	 * Reads the rows of a cursor one by one, but stops as soon as 
+	 * there are more than the given number. So the size of the result
+	 * does not have to be known up front. 
+	 * 
+	 * @return The rows or <code>null</code> if there are too many.
+	 */
+	private static Rows readRows(Cursor c, int maxRows) {
+		Rows rows = new Rows();
+		rows.mColumns = c.getColumnNames();
+		rows.mRows = new ArrayList<Object[]>();
+		
+		while(c.moveToNext()) {
+			if(rows.mRows.size() == maxRows) {
+				return null;
+			}
+			
+			Object[] row = new Object[rows.mColumns.length];
+			
+			for(int i = 0; i < row.length; i++) {
+				row[i] = readValue(c, i);
+			}
+			
+			rows.mRows.add(row);
+		}
+		
+		return rows;
+	}
+	
+	private static Cursor getCursor(Rows rows) {
+		MatrixCursor cursor = new MatrixCursor(rows.mColumns, rows.mRows.size());
+		
+		for(Object[] row : rows.mRows) {
+			cursor.addRow(row);
+		}
+		
+		return cursor;
+	}
+	
+	private static synchronized void put(String key, Dependencies dependencies, Object result) {
+		if(SIZE <= 0) {
+			return;
+		}
+		
+		Entry entry = new Entry();
+		entry.mDependencies = dependencies;
+		entry.mResult = result;
+		
+		RESULTS.put(key, entry);
+	}
+	
+	/**
+	 * Reads a column with the type SQLite stored it in. The type of
+	 * a column can only be asked from windowed cursors, on older
+	 * platforms. All other values are read as strings.
+	 */
+	private static Object readValue(Cursor c, int index) {
+		if(c.isNull(index)) {
+			return null;
+		}
+		
+		if(c instanceof AbstractWindowedCursor) {
+			AbstractWindowedCursor cursor = (AbstractWindowedCursor) c;
+			
+			if(cursor.isLong(index)) {
+				return c.getLong(index);
+			}
+			
+			if(cursor.isFloat(index)) {
+				return c.getDouble(index);
+			}
+			
+			if(cursor.isBlob(index)) {
+				return c.getBlob(index);
+			}
+		}
+		
+		return c.getString(index);
+	}
+	
+	/**
+	 * Resets the hit and miss counters.
+	 */
+	public static synchronized void resetStatistics() {
+		HITS = 0;
+		MISSES = 0;
+	}
+	
+	/**
+	 * Sets the maximum number of rows a result may have in order
+	 * to be cached. Larger results are always read from the database.
+	 * 
+	 * @param rows	Maximum number of rows.
+	 */
+	public static synchronized void setMaxRows(int rows) {
+		MAX_ROWS = rows;
+	}
+	
+	/**
+	 * Sets the maximum number of cached results. If the cache is full, 
+	 * the least recently used result is removed. 0 disables the cache.
+	 * 
+	 * @param size	Maximum number of results.
+	 */
+	public static synchronized void setSize(int size) {
+		SIZE = size;
+		
+		if(SIZE <= 0) {
+			RESULTS.clear();
+		}
+	}
+	
+	/**
+	 * @return Number of currently cached results.
+	 */
+	public static synchronized int size() {
+		return RESULTS.size();
+	}
+}
@@ -0,0 +1,499 @@
+/**
+ * 	Copyright (c) 2010 Philipp Giese
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.orm.androrm;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import android.util.Log;
+
+/**
+ * Compiles the {@link Rule Rules} of a {@link Filter} into one flat
+ * select. The relation path of each rule is resolved to a chain of
+ * joins and the statements of all rules are combined by AND in a 
+ * single WHERE clause. Rules can be added at any time. The select
+ * is only built, when {@link QueryCompiler#getQuery()} is called. 
+ * <br /><br />
+ * Paths that only follow {@link ForeignKeyField ForeignKeyFields} 
+ * point to at most one row. Thus rules sharing such a path also share
+ * its joins. Once a path crosses a {@link ManyToManyField}, 
+ * {@link OneToManyField} or {@link OneToOneField} the rest of it is 
+ * resolved in a correlated {@link ExistsStatement} of its own, as each
+ * rule may be satisfied by another row of the relation. This way the
+ * selected rows never have to be made distinct. 
+ * 
+ * @author Philipp Giese
+ */
+public class QueryCompiler<T extends Model> {
+
+	private static final String TAG = "ANDRORM:QUERY:COMPILER";
+	
+	/**
+	 * Position of the compiler on the path of a rule. 
+	 */
+	private static class Node {
+		
+		private Class<? extends Model> mClass;
+		/**
+		 * Alias of the table of the model. <code>null</code> if 
+		 * only the id of the model is known so far.
+		 */
+		private String mAlias;
+		/**
+		 * Alias of the table holding the id of the model.
+		 */
+		private String mIdAlias;
+		/**
+		 * Column holding the id of the model.
+		 */
+		private String mIdColumn;
+		
+		private Node(Class<? extends Model> clazz, String alias, String idAlias, String idColumn) {
+			mClass = clazz;
+			mAlias = alias;
+			mIdAlias = idAlias;
+			mIdColumn = idColumn;
+		}
+		
+		private Node copy() {
+			return new Node(mClass, mAlias, mIdAlias, mIdColumn);
+		}
+		
+		private String getId() {
+			return mIdAlias + "." + mIdColumn;
+		}
+	}
+	
+	/**
+	 * Tables and statements of one select. Rules crossing a to-many
+	 * relation get a scope of their own, which ends up in an 
+	 * {@link ExistsStatement}.
+	 */
+	private static class Scope {
+		
+		/**
+		 * <code>null</code> until the first table is joined.
+		 */
+		private TableJoin mTables;
+		private Where mWhere;
+		/**
+		 * Links the first table of a subselect to the outer select.
+		 */
+		private String mCondition;
+		
+		private Scope(TableJoin tables) {
+			mTables = tables;
+			mWhere = new Where();
+		}
+		
+		private void join(String table, String alias, String column, String other) {
+			if(mTables == null) {
+				mTables = new TableJoin(table, alias);
+				mCondition = alias + "." + column + "=" + other;
+			} else {
+				mTables.join(table, alias, column, other);
+			}
+		}
+		
+		private Statement toExists() {
+			return new ExistsStatement(mTables, mCondition, mWhere.getStatement());
+		}
+	}
+	
+	private static final String ROOT = "t0";
+	
+	private Scope mScope;
+	/**
+	 * Number of aliases handed out so far. Subselects are correlated
+	 * with the outer select, so all aliases have to be unique.
+	 */
+	private int mAliasCount;
+	/**
+	 * Nodes reached from the root only through foreign keys, 
+	 * stored by their path. 
+	 */
+	private Map<String, Node> mToOne;
+	private boolean mDistinct;
+	private OrderBy mOrderBy;
+	private Limit mLimit;
+	
+	public static final <T extends Model> SelectStatement buildQuery(
+			
+			Class<T> 	clazz, 
+			List<Rule> 	rules
+			
+	) {
+		
+		QueryCompiler<T> compiler = new QueryCompiler<T>(clazz);
+		compiler.add(rules);
+		
+		return compiler.getQuery();
+	}
+	
+	/**
+	 * Selects all rows of the table of the given class.
+	 */
+	protected QueryCompiler(Class<T> clazz) {
+		this(clazz, new TableJoin(DatabaseBuilder.getTableName(clazz), ROOT));
+	}
+	
+	/**
+	 * Selects all rows of the given select, which has to return 
+	 * rows of the table of the given class.
+	 */
+	protected QueryCompiler(Class<T> clazz, SelectStatement base) {
+		this(clazz, new TableJoin(base, ROOT));
+	}
+	
+	private QueryCompiler(Class<T> clazz, TableJoin tables) {
+		mScope = new Scope(tables);
+		mAliasCount = 1;
+		mToOne = new HashMap<String, Node>();
+		mToOne.put("", new Node(clazz, ROOT, ROOT, Model.PK));
+	}
+	
+	/**
+	 * See {@link QueryCompiler#add(Rule)}.
+	 */
+	protected void add(List<Rule> rules) {
+		for(int i = 0, size = rules.size(); i < size; i++) {
+			add(rules.get(i));
+		}
+	}
+	
+	/**
+	 * Resolves the path of the rule and adds its statement to
+	 * the query. 
+	 * 
+	 * @param rule	{@link Rule} to add.
+	 */
+	protected void add(Rule rule) {
+		String[] fields = rule.getKey().split("__");
+		Statement stmt = rule.getStatement();
+		Node node = mToOne.get("");
+		Scope scope = mScope;
+		String path = "";
+		
+		for(int i = 0, last = fields.length - 1; i <= last; i++) {
+			String fieldName = fields[i];
+			
+			if(i == last && fieldName.equals(Model.PK)) {
+				// the id is known without joining the table
+				scope.mWhere.and(stmt.rename(node.mIdColumn).qualify(node.mIdAlias));
+				break;
+			}
+			
+			Object field = getFieldInstance(node.mClass, fieldName);
+			boolean relation = DatabaseBuilder.isRelationalField(field);
+			
+			if(i == last && (!relation || field instanceof ForeignKeyField)) {
+				scope.mWhere.and(stmt.qualify(join(scope, node)));
+				break;
+			}
+			
+			if(!relation) {
+				throw new NoSuchFieldException("Field " 
+						+ fieldName 
+						+ " of class " 
+						+ node.mClass.getSimpleName() 
+						+ " is no relation and can not be followed.");
+			}
+			
+			Relation<?> r = (Relation<?>) field;
+			
+			if(scope == mScope && r instanceof ForeignKeyField) {
+				path += "__" + fieldName;
+				
+				Node known = mToOne.get(path);
+				
+				if(known == null) {
+					known = follow(scope, node, fieldName, r);
+					mToOne.put(path, known);
+				}
+				
+				node = known;
+			} else {
+				if(scope == mScope) {
+					scope = new Scope(null);
+				}
+				
+				node = follow(scope, node, fieldName, r);
+			}
+			
+			if(i == last) {
+				/*
+				 * The ids of the targets are compared with the values
+				 * of the statement. For many to many relations they are
+				 * already part of the relation table. 
+				 */
+				scope.mWhere.and(stmt.rename(node.mIdColumn).qualify(node.mIdAlias));
+			}
+		}
+		
+		if(scope != mScope) {
+			mScope.mWhere.and(scope.toExists());
+		}
+	}
+	
+	/**
+	 * @return A copy of this compiler. Rules added to the copy do
+	 * 			not affect this one.
+	 */
+	protected QueryCompiler<T> copy() {
+		QueryCompiler<T> copy = new QueryCompiler<T>(null, mScope.mTables.clone());
+		copy.mAliasCount = mAliasCount;
+		copy.mDistinct = mDistinct;
+		copy.mOrderBy = mOrderBy;
+		copy.mLimit = mLimit;
+		
+		if(mScope.mWhere.getStatement() != null) {
+			copy.mScope.mWhere.setStatement(mScope.mWhere.getStatement());
+		}
+		
+		for(Map.Entry<String, Node> entry : mToOne.entrySet()) {
+			copy.mToOne.put(entry.getKey(), entry.getValue().copy());
+		}
+		
+		return copy;
+	}
+	
+	protected void distinct() {
+		mDistinct = true;
+	}
+	
+	protected void limit(Limit limit) {
+		mLimit = limit;
+	}
+	
+	/**
+	 * Reads at most the given number of rows. A smaller limit, that
+	 * has been set before, is kept together with its offset.
+	 */
+	protected void limitTo(int count) {
+		if(mLimit == null || mLimit.getRawLimit() == 0) {
+			mLimit = new Limit(count);
+		} else if(mLimit.getRawLimit() > count) {
+			mLimit = new Limit(mLimit.getOffset(), count);
+		}
+	}
+	
+	/**
+	 * Replaces the ordering of the select. See {@link OrderBy}. 
+	 * The columns are those of the selected table. 
+	 */
+	protected void orderBy(boolean ignoreCase, String... columns) {
+		String[] qualified = new String[columns.length];
+		
+		for(int i = 0, length = columns.length; i < length; i++) {
+			String column = columns[i];
+			String direction = "";
+			
+			if(column.startsWith("-") || column.startsWith("+")) {
+				direction = column.substring(0, 1);
+				column = column.substring(1);
+			}
+			
+			qualified[i] = direction + ROOT + "." + column;
+		}
+		
+		mOrderBy = new OrderBy(ignoreCase, qualified);
+	}
+	
+	/**
+	 * @return <code>true</code> if the number of rows is limited.
+	 */
+	protected boolean hasLimit() {
+		return mLimit != null && mLimit.getRawLimit() != 0;
+	}
+	
+	/**
+	 * @return Select of all rows matching the rules added so far. It
+	 * 			is not changed by rules, that are added later on.
+	 */
+	protected SelectStatement getQuery() {
+		return build(true, ROOT + ".*");
+	}
+	
+	/**
+	 * @return Select counting the rows of {@link QueryCompiler#getQuery()}.
+	 */
+	protected SelectStatement getCountQuery() {
+		if(hasLimit() || mDistinct) {
+			SelectStatement count = new SelectStatement();
+			count.from(getQuery())
+				 .count();
+			
+			return count;
+		}
+		
+		return build(false, ROOT + ".*").count();
+	}
+	
+	/**
+	 * @return Select of at most one row, which exists if any row
+	 * 			matches the rules.
+	 */
+	protected SelectStatement getExistsQuery() {
+		if(mDistinct && hasLimit()) {
+			/*
+			 * DISTINCT would collapse all selected constants into
+			 * one row, that no offset could be applied to.
+			 */
+			SelectStatement exists = new SelectStatement();
+			exists.from(getQuery())
+				  .select("1")
+				  .limit(new Limit(1));
+			
+			return exists;
+		}
+		
+		QueryCompiler<T> query = copy();
+		// without a limit, duplicates do not change the result
+		query.mDistinct = false;
+		query.limitTo(1);
+		
+		// without a limit the order does not change the result
+		return query.build(hasLimit(), "1");
+	}
+	
+	private SelectStatement build(boolean ordered, String... columns) {
+		SelectStatement select = new SelectStatement();
+		select.from(mScope.mTables.clone())
+			  .select(columns);
+		
+		if(mScope.mWhere.getStatement() != null) {
+			Where where = new Where();
+			where.setStatement(mScope.mWhere.getStatement());
+			
+			select.where(where);
+		}
+		
+		if(mDistinct) {
+			select.distinct();
+		}
+		
+		if(ordered && mOrderBy != null) {
+			select.orderBy(mOrderBy);
+		}
+		
+		if(hasLimit()) {
+			select.limit(mLimit);
+		}
+		
+		return select;
+	}
+	
+	/**
+	 * Follows the relation from the given node to its target. 
+	 * Targets reached through a relation table are only joined, 
+	 * if their columns are needed later on.
+	 */
+	private Node follow(Scope scope, Node node, String fieldName, Relation<?> r) {
+		Class<? extends Model> target = r.getTarget();
+		String targetTable = DatabaseBuilder.getTableName(target);
+		
+		if(r instanceof ForeignKeyField) {
+			String alias = join(scope, node);
+			
+			return new Node(target, null, alias, fieldName);
+		}
+		
+		String alias = nextAlias();
+		
+		if(r instanceof ManyToManyField) {
+			ManyToManyField<?, ?> m = (ManyToManyField<?, ?>) r;
+			
+			scope.join(m.getRelationTableName(), 
+					alias, 
+					DatabaseBuilder.getTableName(node.mClass), 
+					node.getId());
+			
+			return new Node(target, null, alias, targetTable);
+		}
+		
+		scope.join(targetTable, 
+				alias, 
+				Model.getBackLinkFieldName(target, node.mClass), 
+				node.getId());
+		
+		return new Node(target, alias, alias, Model.PK);
+	}
+	
+	/**
+	 * Makes sure the table of the node is part of the given scope. 
+	 * 
+	 * @return Alias of the table.
+	 */
+	private String join(Scope scope, Node node) {
+		if(node.mAlias == null) {
+			String alias = nextAlias();
+			
+			scope.join(DatabaseBuilder.getTableName(node.mClass), 
+					alias, 
+					Model.PK, 
+					node.getId());
+			
+			node.mAlias = alias;
+			node.mIdAlias = alias;
+			node.mIdColumn = Model.PK;
+		}
+		
+		return node.mAlias;
+	}
+	
+	private String nextAlias() {
+		return "t" + mAliasCount++;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static final Object getFieldInstance(
+			
+			Class<? extends Model> 	clazz, 
+			String 					fieldName
+	
+	) {
+		
+		Class<Model> c = (Class<Model>) clazz;
+		Model instance = InstanceFactories.getPrototype(c);
+		Object fieldInstance = null;
+		
+		if(instance != null) {
+			Field field = Model.getField(c, instance, fieldName);
+			
+			if(field != null) {
+				try {
+					fieldInstance = field.get(instance);
+				} catch(IllegalAccessException e) {
+					Log.e(TAG, "exception thrown while trying to create representation of " 
+							+ clazz.getSimpleName() 
+							+ " and fetching field object for field " 
+							+ fieldName, e);
+				}
+			}
+		}
+		
+		return fieldInstance;
+	}
+}
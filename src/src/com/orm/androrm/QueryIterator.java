@@ -0,0 +1,118 @@
+/**
+ * 	Copyright (c) 2010 Philipp Giese
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.orm.androrm;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import android.database.Cursor;
+
+/**
+ * Iterates over the result of a {@link QuerySet} without loading 
+ * it into memory at once. Each model is created from the open 
+ * {@link Cursor} as soon as it is requested. 
+ * <br /><br />
+ * The cursor is closed, when the last row has been read. Iterators,
+ * that are not consumed completely have to be closed by calling
+ * {@link QueryIterator#close()}.
+ * 
+ * @author Philipp Giese
+ */
+public class QueryIterator<T extends Model> implements Iterator<T>, Iterable<T>, Closeable {
+
+	private DatabaseAdapter mAdapter;
+	private Cursor mCursor;
+	private HydrationPlan<T> mPlan;
+	/**
+	 * Model of the next row, if it has already been read.
+	 */
+	private T mNext;
+	
+	/**
+	 * @param model		Class of the models, that will be created.
+	 * @param adapter	{@link DatabaseAdapter} the cursor has been opened with. 
+	 * 					It will be closed together with the cursor.
+	 * @param cursor	{@link Cursor} with the result rows. <code>null</code> for
+	 * 					an empty result.
+	 */
+	protected QueryIterator(Class<T> model, DatabaseAdapter adapter, Cursor cursor) {
+		mAdapter = adapter;
+		mCursor = cursor;
+		
+		if(cursor != null) {
+			mPlan = new HydrationPlan<T>(model, cursor, adapter);
+		}
+	}
+	
+	/**
+	 * Closes the underlying cursor and hands the connection back. Calling
+	 * this method more than once has no effect.
+	 */
+	@Override
+	public void close() {
+		if(mCursor != null) {
+			mCursor.close();
+			mCursor = null;
+			
+			mAdapter.close();
+		}
+	}
+	
+	@Override
+	public boolean hasNext() {
+		if(mNext == null && mCursor != null) {
+			while(mNext == null && mCursor.moveToNext()) {
+				mNext = mPlan.createObject(mCursor);
+			}
+			
+			if(mNext == null) {
+				close();
+			}
+		}
+		
+		return mNext != null;
+	}
+	
+	@Override
+	public Iterator<T> iterator() {
+		return this;
+	}
+	
+	@Override
+	public T next() {
+		if(!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		
+		T next = mNext;
+		mNext = null;
+		
+		return next;
+	}
+	
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("models can not be removed from a query result.");
+	}
+}
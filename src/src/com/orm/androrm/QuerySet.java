@@ -23,35 +23,188 @@
 package com.orm.androrm;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
+import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.sqlite.SQLiteStatement;
 
 /**
  * @author Philipp Giese
  */
 public class QuerySet<T extends Model> implements Iterable<T> {
 
-	private SelectStatement mQuery;
+	/**
+	 * A compiled insert statement, that has been acquired from the
+	 * {@link StatementCache}, together with the columns in the order
+	 * of its placeholders.
+	 */
+	private static class CompiledInsert {
+		
+		private String[] mColumns;
+		private SQLiteStatement mStatement;
+	}
+	
+	/**
+	 * Columns, that are read by {@link QuerySet#values(String...)} and
+	 * {@link QuerySet#valuesList(String...)} together with the fields
+	 * that know their types. 
+	 */
+	private static class ValuesPlan {
+		
+		private List<String> mColumns = new ArrayList<String>();
+		private List<DataField<?>> mFields = new ArrayList<DataField<?>>();
+		
+		public void add(String fieldName, DataField<?> field) {
+			for(String column : field.getColumnNames(fieldName)) {
+				mColumns.add(column);
+				mFields.add(field);
+			}
+		}
+	}
+	
+	/**
+	 * Collects the filters, the ordering and the limit of this
+	 * query. <code>null</code> as long as nothing has been selected.
+	 */
+	private QueryCompiler<T> mQuery;
 	private Class<T> mClass;
 	private List<T> mItems;
+	/**
+	 * Ids of {@link QuerySet#mItems}. Built on demand.
+	 */
+	private Set<Integer> mIds;
+	/**
+	 * Cached result of {@link QuerySet#count()}. <code>-1</code> 
+	 * if unknown.
+	 */
+	private int mCount = -1;
 	private DatabaseAdapter mAdapter;
+	/**
+	 * Names of the fields, that are fetched. <code>null</code> for all.
+	 */
+	private Set<String> mOnly;
+	/**
+	 * Names of the fields, that are not fetched. 
+	 */
+	private Set<String> mDeferred;
 	
 	public QuerySet(Context context, Class<T> model) {
 		mClass = model;
-		mAdapter = new DatabaseAdapter(context);
+		mAdapter = DatabaseAdapter.getInstance(context);
 	}
 	
 	protected void injectQuery(SelectStatement query) {
-		mQuery = query;
+		mQuery = new QueryCompiler<T>(mClass, query);
+		
+		clearResults();
+	}
+	
+	/**
+	 * Forgets the models and the count read so far. Has to be 
+	 * called, whenever the query is changed.
+	 */
+	private void clearResults() {
+		mItems = null;
+		mIds = null;
+		mCount = -1;
+	}
+	
+	/**
+	 * Builds the select of this query. 
+	 * 
+	 * @return <code>null</code> if nothing has been selected yet.
+	 */
+	private SelectStatement getQuery() {
+		if(mQuery == null) {
+			return null;
+		}
+		
+		return mQuery.getQuery();
+	}
+	
+	/**
+	 * @return A copy of the current query, that can be extended 
+	 * 			without changing this {@link QuerySet}.
+	 */
+	private QueryCompiler<T> copyQuery() {
+		if(mQuery == null) {
+			return new QueryCompiler<T>(mClass);
+		}
+		
+		return mQuery.copy();
 	}
 	
 	private Cursor getCursor(SelectStatement query) {
+		return getCursor(query, true);
+	}
+	
+	private Cursor getCursor(SelectStatement query, boolean useCache) {
 		mAdapter.open();
-		return mAdapter.query(query);
+		return mAdapter.query(project(query), useCache);
+	}
+	
+	/**
+	 * Restricts the columns of the given query to the ones of the
+	 * fields selected by {@link QuerySet#only(String...)} and 
+	 * {@link QuerySet#defer(String...)}. 
+	 */
+	private SelectStatement project(SelectStatement query) {
+		if(mOnly == null && mDeferred == null) {
+			return query;
+		}
+		
+		List<String> columns = new ArrayList<String>();
+		columns.add(Model.PK);
+		
+		T instance = InstanceFactories.getPrototype(mClass);
+		ModelAdapter<T> adapter = ModelAdapters.get(mClass);
+		String[] fieldNames = adapter.getFieldNames();
+		
+		for(int i = 0; i < fieldNames.length; i++) {
+			AndrormField field = adapter.getField(instance, i);
+			String name = fieldNames[i];
+			
+			if(field instanceof DataField 
+				&& !name.equals(Model.PK)
+				&& (mOnly == null || mOnly.contains(name))
+				&& (mDeferred == null || !mDeferred.contains(name))) {
+				
+				columns.addAll(Arrays.asList(((DataField<?>) field).getColumnNames(name)));
+			}
+		}
+		
+		SelectStatement select = new SelectStatement();
+		select.from(query)
+			  .select(columns.toArray(new String[columns.size()]));
+		
+		return select;
+	}
+	
+	/**
+	 * Checks, that the model has a field for each of the given names.
+	 * 
+	 * @throws NoSuchFieldException
+	 */
+	private Set<String> getFieldNames(String... fields) throws NoSuchFieldException {
+		T instance = InstanceFactories.getPrototype(mClass);
+		Set<String> names = new HashSet<String>();
+		
+		for(String field : fields) {
+			Model.getField(mClass, instance, field);
+			names.add(field);
+		}
+		
+		return names;
 	}
 	
 	private void closeConnection(Cursor c) {
@@ -59,26 +212,321 @@ public class QuerySet<T extends Model> implements Iterable<T> {
 		mAdapter.close();
 	}
 	
+	/**
+	 * Inserts all given models, that have not been saved yet, in a single
+	 * transaction. For each model class one compiled insert statement is 
+	 * executed for all of its instances. The generated ids are
+	 * assigned to the models afterwards. Models without autoincrement
+	 * are inserted with the id they carry. 
+	 * <br /><br />
+	 * Note, that relations of the models are <b>NOT</b> saved. 
+	 * 
+	 * @param items	Models that shall be inserted.
+	 * @return 	<code>true</code> if all models have been inserted, 
+	 * 			<code>false</code> if the insert has been rolled back or
+	 * 			a model without autoincrement has no id.
+	 */
+	public boolean bulkCreate(Collection<T> items) {
+		final List<T> created = new ArrayList<T>();
+		
+		for(T item : items) {
+			if(item == null) {
+				continue;
+			}
+			
+			if(item.isAutoincrement()) {
+				if(item.getId() == 0) {
+					created.add(item);
+				}
+			} else if(item.getId() == 0) {
+				// just like save(), there is no id to insert the row with
+				return false;
+			} else if(!item.isPersisted()) {
+				created.add(item);
+			}
+		}
+		
+		if(created.isEmpty()) {
+			return true;
+		}
+		
+		boolean success = false;
+		
+		try {
+			success = mAdapter.runInTransaction(new TransactionCallback() {
+				
+				@Override
+				public boolean run(DatabaseAdapter adapter) {
+					return insert(adapter, created);
+				}
+			});
+		} finally {
+			if(!success) {
+				for(T item : created) {
+					if(item.isAutoincrement()) {
+						item.setId(0);
+					}
+				}
+			}
+		}
+		
+		return success;
+	}
+	
+	private boolean insert(DatabaseAdapter adapter, List<T> items) {
+		Map<Class<?>, CompiledInsert> statements = new HashMap<Class<?>, CompiledInsert>();
+		
+		try {
+			for(T item : items) {
+				ContentValues values = new ContentValues();
+				item.collectValues(values);
+				
+				CompiledInsert insert = statements.get(item.getClass());
+				
+				if(insert == null) {
+					insert = new CompiledInsert();
+					insert.mColumns = values.keySet().toArray(new String[values.size()]);
+					Arrays.sort(insert.mColumns);
+					
+					String table = DatabaseBuilder.getTableName(item.getClass());
+					
+					InsertStatement statement = new InsertStatement();
+					statement.into(table)
+							 .columns(insert.mColumns);
+					
+					insert.mStatement = adapter.acquireStatement(statement);
+					adapter.invalidate(table);
+					statements.put(item.getClass(), insert);
+				}
+				
+				long id;
+				
+				synchronized(insert.mStatement) {
+					DatabaseAdapter.bind(insert.mStatement, insert.mColumns, values);
+					id = insert.mStatement.executeInsert();
+				}
+				
+				if(id == -1) {
+					return false;
+				}
+				
+				item.setId((int) id);
+			}
+		} finally {
+			for(CompiledInsert insert : statements.values()) {
+				insert.mStatement.releaseReference();
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Iterates over the result of this query page by page. Each page 
+	 * continues after the highest id of the previous one, so that 
+	 * SQLite can seek to it using the primary key. Deep pages are
+	 * therefore as fast as the first one, which is not true for
+	 * offsets, that are handed to {@link QuerySet#limit(int, int)}.
+	 * <br /><br />
+	 * The pages are ordered by id. Any other ordering or limit of 
+	 * this query is ignored. 
+	 * 
+	 * @param pageSize	Maximum number of models on each page. 
+	 * @return {@link Iterable} over all pages.
+	 */
+	public Iterable<List<T>> pages(final int pageSize) {
+		if(pageSize <= 0) {
+			throw new IllegalArgumentException("page size has to be positive.");
+		}
+		
+		final QueryCompiler<T> query = copyQuery();
+		query.limit(null);
+		
+		return new Iterable<List<T>>() {
+			
+			@Override
+			public Iterator<List<T>> iterator() {
+				return new PageIterator(query, pageSize);
+			}
+		};
+	}
+	
+	/**
+	 * Fetches the pages of {@link QuerySet#pages(int)} one at a time.
+	 */
+	private class PageIterator implements Iterator<List<T>> {
+		
+		private QueryCompiler<T> mBase;
+		private int mPageSize;
+		private int mLastId;
+		private List<T> mPage;
+		private boolean mDone;
+		
+		public PageIterator(QueryCompiler<T> base, int pageSize) {
+			mBase = base;
+			mPageSize = pageSize;
+		}
+		
+		@Override
+		public boolean hasNext() {
+			if(mPage == null && !mDone) {
+				QueryCompiler<T> query = mBase.copy();
+				query.add(getSeekRule(Model.PK, String.valueOf(mLastId)));
+				query.orderBy(false, Model.PK);
+				query.limitTo(mPageSize);
+				
+				Cursor c = getCursor(query.getQuery());
+				List<T> page = createObjects(c);
+				closeConnection(c);
+				
+				if(page.isEmpty()) {
+					mDone = true;
+				} else {
+					mPage = page;
+					mLastId = page.get(page.size() - 1).getId();
+					
+					// a short page is the last one
+					mDone = page.size() < mPageSize;
+				}
+			}
+			
+			return mPage != null;
+		}
+		
+		@Override
+		public List<T> next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			
+			List<T> page = mPage;
+			mPage = null;
+			
+			return page;
+		}
+		
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException("pages can not be removed from a query result.");
+		}
+	}
+	
+	/**
+	 * @return {@link Rule} selecting all rows after the given value
+	 * 			in the order of the given column.
+	 */
+	private static Rule getSeekRule(String column, String value) {
+		String operator = ">";
+		
+		if(column.startsWith("-")) {
+			operator = "<";
+		}
+		
+		String key = column;
+		
+		if(column.startsWith("-") || column.startsWith("+")) {
+			key = column.substring(1);
+		}
+		
+		return new Rule(key, new Statement(key, operator, value));
+	}
+	
+	/**
+	 * Only selects the objects with an id greater than the given one,
+	 * ordered by id. Together with {@link QuerySet#limit(int)} this 
+	 * fetches the page following the given id without scanning all 
+	 * previous pages. 
+	 * 
+	 * @param id	Id of the last object, that has been seen.
+	 * @return This {@link QuerySet}.
+	 */
+	public QuerySet<T> after(int id) {
+		return after(Model.PK, String.valueOf(id));
+	}
+	
+	/**
+	 * Only selects the objects, that follow the given value in the
+	 * ordering of the given column. The column has to be unique, in
+	 * order to not skip any object. As with {@link QuerySet#orderBy(String...)}
+	 * a preceding <code>-</code> reverses the ordering. 
+	 * <br /><br />
+	 * For example <code>after("-mName", "foo")</code> selects all objects
+	 * with a name less than <code>foo</code> ordered by name descending.
+	 * 
+	 * @param column	Name of the column.
+	 * @param value		Value of the column of the last object, that has been seen.
+	 * @return This {@link QuerySet}.
+	 */
+	public QuerySet<T> after(String column, String value) {
+		all();
+		
+		mQuery.add(getSeekRule(column, value));
+		mQuery.orderBy(false, column);
+		
+		clearResults();
+		
+		return this;
+	}
+	
+	/**
+	 * Looks up a single model by its id. Unless this query has been
+	 * changed, the current {@link Session} and the {@link InstanceCache}
+	 * are asked first. 
+	 * <br /><br />
+	 * Rows can not be read through a {@link StatementCache}. The lookup
+	 * is run as a cursor query, whose SQL only depends on the model 
+	 * class. It is thus found in the prepared statement cache of the 
+	 * connection, on platforms, that provide one. 
+	 * 
+	 * @param id	Id of the model.
+	 * @return The model or <code>null</code> if there is none with this id.
+	 */
 	public T get(int id) {
-		Where where = new Where();
-		where.setStatement(new Statement(Model.PK, id));
+		boolean plain = mQuery == null;
+		Session session = Session.getCurrent();
 		
-		if(mQuery == null) {
-			mQuery = new SelectStatement();
-			mQuery.from(DatabaseBuilder.getTableName(mClass));
+		if(plain) {
+			T known = null;
+			
+			if(session != null) {
+				known = session.get(mClass, id);
+			}
+			
+			if(known == null) {
+				known = InstanceCache.get(mAdapter.getConnectionName(), mClass, id);
+				
+				if(known != null && session != null) {
+					session.put(known);
+				}
+			}
+			
+			if(known != null) {
+				return known;
+			}
 		}
 		
-		mQuery.where(where);
+		QueryCompiler<T> query = copyQuery();
+		query.add(new Rule(Model.PK, new Statement(Model.PK, id)));
 		
-		Cursor c = getCursor(mQuery);
+		Cursor c = getCursor(query.getQuery());
 		T object = createObject(c);
 		closeConnection(c);
 		
+		/*
+		 * Rows read within a transaction might still be rolled 
+		 * back, so they must not be shared with other threads.
+		 */
+		if(plain && object != null && !mAdapter.inTransaction()) {
+			InstanceCache.put(mAdapter.getConnectionName(), object);
+		}
+		
 		return object;
 	}
 	
 	/**
 	 * Returns the single object that matches the given filter query.
+	 * The query is executed once and reads at most two rows, which
+	 * is enough to tell, whether the object is unique. 
 	 * 
 	 * @param filter
 	 *            the {@link Filter} that is executed in order to retrieve the
@@ -90,44 +538,87 @@ public class QuerySet<T extends Model> implements Iterable<T> {
 	 *             if more than one object matches the given query
 	 */
 	public T get(Filter filter) throws DoesNotExistException, MultipleObjectsReturnedException {
+		QueryCompiler<T> query = copyQuery();
+		query.add(filter.getRules());
+		query.limitTo(2);
+		
 		T object;
+		boolean multiple;
 		
-		SelectStatement query = getFilter(filter);
-		int count = getCount( getFilter(filter) );
+		Cursor c = getCursor(query.getQuery());
 		
-		if (count == 1) {
-			Cursor c = getCursor(query);
+		try {
 			object = createObject(c);
+			multiple = c.moveToNext();
+		} finally {
 			closeConnection(c);
-		} else if (count == 0) {
+		}
+		
+		if(object == null) {
 			throw new DoesNotExistException(
 					mClass.getSimpleName()
 					+ " matching query does not exist.");
-		} else {
+		}
+		
+		if(multiple) {
 			throw new MultipleObjectsReturnedException(
 					"get() returned more than one "
 					+ mClass.getSimpleName()
-					+ " -- it returned " + count + "!");
+					+ "!");
 		}
 		
 		return object;
 	}
 	
+	/**
+	 * Only fetches the values of the given fields and the id of each
+	 * model. All other fields are loaded from the database, when they 
+	 * are accessed for the first time.
+	 * 
+	 * @param fields	Names of the fields, that shall be fetched.
+	 * @return This {@link QuerySet}.
+	 * @throws NoSuchFieldException
+	 */
+	public QuerySet<T> only(String... fields) throws NoSuchFieldException {
+		mOnly = getFieldNames(fields);
+		
+		return this;
+	}
+	
 	public QuerySet<T> orderBy(String... columns) {
 		if(mQuery != null) {
-			SelectStatement query = new SelectStatement();
-			query.from(mQuery)
-				 .orderBy(columns);
-
-			mQuery = query;
+			mQuery.orderBy(true, columns);
+			
+			clearResults();
 		}
 		
 		return this;
 	}
 	
+	/**
+	 * Leaves the values of the given fields out of the query. They
+	 * are loaded from the database, when they are accessed for the
+	 * first time. Use this for large fields, that are rarely needed. 
+	 * 
+	 * @param fields	Names of the fields, that shall not be fetched.
+	 * @return This {@link QuerySet}.
+	 * @throws NoSuchFieldException
+	 */
+	public QuerySet<T> defer(String... fields) throws NoSuchFieldException {
+		if(mDeferred == null) {
+			mDeferred = new HashSet<String>();
+		}
+		
+		mDeferred.addAll(getFieldNames(fields));
+		
+		return this;
+	}
+	
 	public QuerySet<T> distinct() {
 		if(mQuery != null) {
 			mQuery.distinct();
+			
+			clearResults();
 		}
 		
 		return this;
@@ -135,40 +626,33 @@ public class QuerySet<T extends Model> implements Iterable<T> {
 
 	public QuerySet<T> all() {
 		if(mQuery == null) {
-			mQuery = new SelectStatement();
-			mQuery.from(DatabaseBuilder.getTableName(mClass));
+			mQuery = new QueryCompiler<T>(mClass);
+			
+			clearResults();
 		}
 		
 		return this;
 	}
 	
+	/**
+	 * Restricts the result to the objects matching the given filter.
+	 * Filters of consecutive calls are combined in the same select, 
+	 * which is built only when the query is executed.
+	 * 
+	 * @param filter	{@link Filter} to apply.
+	 * @return This {@link QuerySet}.
+	 * @throws NoSuchFieldException
+	 */
 	public QuerySet<T> filter(Filter filter) throws NoSuchFieldException {
-		mQuery = getFilter(filter);
+		all();
 		
-		return this;
-	}
-
-	private SelectStatement getFilter(Filter filter) {
-		SelectStatement query = QueryBuilder.buildQuery(mClass, filter.getRules());
+		mQuery.add(filter.getRules());
 		
-		SelectStatement filterQuery;
-		if(mQuery == null) {
-			filterQuery = query;
-		} else {
-			JoinStatement join = new JoinStatement();
-			join.left(mQuery, "left")
-				.right(query, "right")
-				.on(Model.PK, Model.PK);
-			
-			SelectStatement select = new SelectStatement();
-			select.from(join);
-			
-			filterQuery = select;
-		}
+		clearResults();
 		
-		return filterQuery;
+		return this;
 	}
-	
+
 	public QuerySet<T> limit(int limit) {
 		return limit(new Limit(limit));
 	}
@@ -180,24 +664,65 @@ public class QuerySet<T extends Model> implements Iterable<T> {
 	public QuerySet<T> limit(Limit limit) {
 		if(mQuery != null) {
 			mQuery.limit(limit);
+			
+			clearResults();
 		}
 		
 		return this;
 	}
 	
+	/**
+	 * Counts the objects matching this query. If they have been 
+	 * read already, they are counted in memory. Otherwise the 
+	 * count is read from the database and kept, until this 
+	 * {@link QuerySet} is changed. 
+	 * 
+	 * @return Number of objects.
+	 */
 	public int count() {
-		if(mQuery != null) {
-			return getCount(mQuery);
+		if(mQuery == null) {
+			return all().count();
 		}
 		
-		return all().count();
+		if(mItems != null) {
+			return mItems.size();
+		}
+		
+		if(mCount == -1) {
+			mCount = getCount(mQuery);
+		}
+		
+		return mCount;
+	}
+	
+	/**
+	 * Checks, if any object matches this query. Other than 
+	 * {@link QuerySet#count()} the database stops at the first 
+	 * matching row. 
+	 * 
+	 * @return <code>true</code> if there is at least one object.
+	 */
+	public boolean exists() {
+		if(mQuery == null) {
+			return all().exists();
+		}
+		
+		if(mItems != null) {
+			return !mItems.isEmpty();
+		}
+		
+		if(mCount != -1) {
+			return mCount != 0;
+		}
+		
+		return exists(mQuery);
 	}
 	
 	private T createObject(Cursor c) {
 		T object = null;
 		
 		if(c.moveToNext()) {
-			object = Model.createObject(mClass, c);
+			object = Model.createObject(mClass, c, mAdapter);
 		}
 		
 		return object;
@@ -205,9 +730,10 @@ public class QuerySet<T extends Model> implements Iterable<T> {
 	
 	private List<T> createObjects(Cursor c) {
 		List<T> items = new ArrayList<T>();
+		HydrationPlan<T> plan = new HydrationPlan<T>(mClass, c, mAdapter);
 		
 		while(c.moveToNext()) {
-			T object = Model.createObject(mClass, c);
+			T object = plan.createObject(c);
 			
 			if(object != null) {
 				items.add(object);
@@ -222,7 +748,7 @@ public class QuerySet<T extends Model> implements Iterable<T> {
 			mItems = new ArrayList<T>();
 			
 			if(mQuery != null) {
-				Cursor c = getCursor(mQuery);
+				Cursor c = getCursor(getQuery());
 				mItems.addAll(createObjects(c));
 				closeConnection(c);
 			}
@@ -236,42 +762,92 @@ public class QuerySet<T extends Model> implements Iterable<T> {
 		return getItems().iterator();
 	}
 	
-	private int getCount(SelectStatement query) {
-		SelectStatement countQuery = new SelectStatement();
-		countQuery.from(query)
-			 	  .count();
+	/**
+	 * Executes the query and returns an iterator, that creates the 
+	 * models one by one while the result is traversed. Other than 
+	 * {@link QuerySet#iterator()} the result is never held in memory 
+	 * as a whole, so use this for large results. 
+	 * <br /><br />
+	 * The iterator keeps a cursor open until it has been consumed 
+	 * completely. If you stop early, call {@link QueryIterator#close()}.
+	 * 
+	 * @return {@link QueryIterator} over the result of this query.
+	 */
+	public QueryIterator<T> iterate() {
+		if(mQuery == null) {
+			return new QueryIterator<T>(mClass, mAdapter, null);
+		}
 		
-		Cursor c = getCursor(countQuery);
+		// the result is not cached, as that would read it as a whole
+		return new QueryIterator<T>(mClass, mAdapter, getCursor(getQuery(), false));
+	}
+	
+	private int getCount(QueryCompiler<T> query) {
+		return (int) mAdapter.queryForLong(query.getCountQuery());
+	}
+	
+	private boolean exists(QueryCompiler<T> query) {
+		mAdapter.open();
 		
-		int count = 0;
+		Cursor c = mAdapter.query(query.getExistsQuery());
 		
-		if(c.moveToFirst()) {
-			count = c.getInt(c.getColumnIndexOrThrow(Model.COUNT));
+		try {
+			return c.moveToFirst();
+		} finally {
+			closeConnection(c);
+		}
+	}
+	
+	/**
+	 * @return Ids of the objects, that have been read already.
+	 */
+	private Set<Integer> getIds() {
+		if(mIds == null) {
+			mIds = new HashSet<Integer>();
+			
+			for(T item : mItems) {
+				mIds.add(item.getId());
+			}
 		}
 		
-		closeConnection(c);
+		return mIds;
+	}
+	
+	/**
+	 * @return A copy of this query, that only selects the objects
+	 * 			matching the given rule as well.
+	 */
+	private QueryCompiler<T> restrict(Rule rule) {
+		QueryCompiler<T> query;
+		
+		if(mQuery.hasLimit()) {
+			// the rule must not change, which rows are within the limit
+			query = new QueryCompiler<T>(mClass, mQuery.getQuery());
+		} else {
+			query = mQuery.copy();
+		}
 		
-		return count;
+		query.add(rule);
+		
+		return query;
 	}
 
 	/**
 	 * Checks if the result of this query contains the given 
-	 * object. Note, that this operation will execute the query
-	 * on the database. Use only, if you have to. 
+	 * object. If the result has been read already, this is 
+	 * answered from memory. Otherwise the query is executed
+	 * on the database until the object is found. 
 	 * 
 	 * @param value
 	 * @return
 	 */
 	public boolean contains(T value) {
 		if(mQuery != null) {
-			Where where = new Where();
-			where.setStatement(new Statement(Model.PK, value.getId()));
-			
-			SelectStatement query = new SelectStatement();
-			query.from(mQuery)
-				 .where(where);
+			if(mItems != null) {
+				return getIds().contains(value.getId());
+			}
 			
-			return getCount(query) != 0;
+			return exists(restrict(new Rule(Model.PK, new Statement(Model.PK, value.getId()))));
 		}
 		
 		return false;
@@ -284,30 +860,167 @@ public class QuerySet<T extends Model> implements Iterable<T> {
 	 */
 	public boolean containsAll(Collection<T> values) {
 		if(mQuery != null) {
-			List<Object> ids = new ArrayList<Object>();
+			Set<Integer> ids = new HashSet<Integer>();
 			
 			for(T item : values) {
 				ids.add(item.getId());
 			}
 			
-			Where where = new Where();
-			where.setStatement(new InStatement(Model.PK, ids));
+			if(mItems != null) {
+				return getIds().containsAll(ids);
+			}
 			
-			SelectStatement query = new SelectStatement();
-			query.from(mQuery)
-				 .where(where);
+			if(ids.isEmpty()) {
+				return true;
+			}
 			
-			return getCount(query) == values.size();
+			return getCount(restrict(new Rule(Model.PK, 
+					new InStatement(Model.PK, new ArrayList<Object>(ids))))) == ids.size();
 		}
 		
 		return false;
 	}
 
+	/**
+	 * Determines the columns of the given fields. If no field is
+	 * given, all fields of the model are read. 
+	 */
+	private ValuesPlan getValuesPlan(String... fields) throws NoSuchFieldException {
+		ValuesPlan plan = new ValuesPlan();
+		
+		// used once to find the field types, not for each row
+		T instance = InstanceFactories.getPrototype(mClass);
+		ModelAdapter<T> adapter = ModelAdapters.get(mClass);
+		List<String> fieldNames = Arrays.asList(adapter.getFieldNames());
+		
+		if(fields.length == 0) {
+			for(int i = 0, size = fieldNames.size(); i < size; i++) {
+				AndrormField field = adapter.getField(instance, i);
+				
+				if(field instanceof DataField) {
+					plan.add(fieldNames.get(i), (DataField<?>) field);
+				}
+			}
+			
+			return plan;
+		}
+		
+		for(String name : fields) {
+			int index = fieldNames.indexOf(name);
+			
+			if(index == -1) {
+				throw new NoSuchFieldException("No field named " 
+						+ name 
+						+ " was found in class " 
+						+ mClass.getSimpleName() 
+						+ "! Choices are: " 
+						+ fieldNames.toString());
+			}
+			
+			AndrormField field = adapter.getField(instance, index);
+			
+			if(!(field instanceof DataField)) {
+				throw new NoSuchFieldException("Field " 
+						+ name 
+						+ " of class " 
+						+ mClass.getSimpleName() 
+						+ " is not stored in a column!");
+			}
+			
+			plan.add(name, (DataField<?>) field);
+		}
+		
+		return plan;
+	}
+	
+	/**
+	 * Reads the given columns of all rows straight from the cursor. 
+	 */
+	private List<Object[]> getValues(ValuesPlan plan) {
+		List<Object[]> rows = new ArrayList<Object[]>();
+		
+		if(mQuery == null) {
+			return rows;
+		}
+		
+		int size = plan.mColumns.size();
+		
+		SelectStatement select = new SelectStatement();
+		select.from(getQuery())
+			  .select(plan.mColumns.toArray(new String[size]));
+		
+		mAdapter.open();
+		
+		Cursor c = mAdapter.query(select);
+		
+		try {
+			while(c.moveToNext()) {
+				Object[] row = new Object[size];
+				
+				for(int i = 0; i < size; i++) {
+					row[i] = plan.mFields.get(i).readValue(c, i);
+				}
+				
+				rows.add(row);
+			}
+		} finally {
+			c.close();
+			mAdapter.close();
+		}
+		
+		return rows;
+	}
+	
 	public boolean isEmpty() {
-		return count() == 0;
+		return !exists();
 	}
 
 	public List<T> toList() {
 		return getItems();
 	}
+	
+	/**
+	 * Reads the values of the given fields without creating any
+	 * models. Each row is returned as a map from column name to
+	 * its value. Fields spanning more than one column, like a 
+	 * {@link LocationField}, contribute all of their columns. 
+	 * <br /><br />
+	 * Use this, if you only need the data and not the models, 
+	 * e.g. for exports. 
+	 * 
+	 * @param fields	Names of the fields. If none are given, all 
+	 * 					fields are read.
+	 * @return {@link List} of rows.
+	 * @throws NoSuchFieldException
+	 */
+	public List<Map<String, Object>> values(String... fields) throws NoSuchFieldException {
+		ValuesPlan plan = getValuesPlan(fields);
+		List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+		
+		for(Object[] values : getValues(plan)) {
+			Map<String, Object> row = new HashMap<String, Object>();
+			
+			for(int i = 0; i < values.length; i++) {
+				row.put(plan.mColumns.get(i), values[i]);
+			}
+			
+			rows.add(row);
+		}
+		
+		return rows;
+	}
+	
+	/**
+	 * Same as {@link QuerySet#values(String...)}, but each row is
+	 * returned as an array holding the column values in the order
+	 * of the given fields. 
+	 * 
+	 * @param fields	Names of the fields. If none are given, all 
+	 * 					fields are read.
+	 * @return {@link List} of rows.
+	 * @throws NoSuchFieldException
+	 */
+	public List<Object[]> valuesList(String... fields) throws NoSuchFieldException {
+		return getValues(getValuesPlan(fields));
+	}
 }
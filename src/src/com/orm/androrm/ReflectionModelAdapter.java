@@ -0,0 +1,89 @@
+/**
+ * 	Copyright (c) 2010 Philipp Giese
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.orm.androrm;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import android.util.Log;
+
+/**
+ * {@link ModelAdapter} used for all model classes, that do not 
+ * provide an adapter of their own. The fields are looked up once
+ * and then accessed through reflection.
+ * 
+ * @author Philipp Giese
+ *
+ * @param <T>	Type of the model.
+ */
+class ReflectionModelAdapter<T extends Model> implements ModelAdapter<T> {
+
+	private static final String TAG = "ANDRORM:REFLECTION:ADAPTER";
+	
+	private Field[] mFields;
+	private String[] mFieldNames;
+	
+	public ReflectionModelAdapter(Class<T> clazz) {
+		List<Field> fields = new ArrayList<Field>();
+		T prototype = InstanceFactories.getPrototype(clazz);
+		
+		if(prototype != null) {
+			for(Class<? extends Model> current = clazz; current != null && current != Model.class; current = Model.getSuperclass(current)) {
+				fields.addAll(DatabaseBuilder.getFields(current, prototype));
+			}
+		}
+		
+		mFields = fields.toArray(new Field[fields.size()]);
+		mFieldNames = new String[mFields.length];
+		
+		for(int i = 0; i < mFields.length; i++) {
+			mFieldNames[i] = mFields[i].getName();
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public Class<? extends Model> getDeclaringClass(int index) {
+		return (Class<? extends Model>) mFields[index].getDeclaringClass();
+	}
+	
+	@Override
+	public AndrormField getField(T model, int index) {
+		try {
+			return (AndrormField) mFields[index].get(model);
+		} catch(IllegalAccessException e) {
+			Log.e(TAG, "exception thrown while accessing field " 
+					+ mFieldNames[index] 
+					+ " of " 
+					+ model.getClass().getSimpleName(), e);
+		}
+		
+		return null;
+	}
+	
+	@Override
+	public String[] getFieldNames() {
+		return mFieldNames;
+	}
+}
@@ -22,6 +22,9 @@
  */
 package com.orm.androrm;
 
+import java.util.List;
+import java.util.Set;
+
 import android.util.Log;
 
 /**
@@ -35,7 +38,19 @@ public class SelectStatement implements Cloneable {
 	private static final String TAG = "ANDRORM:SELECT";
 	
 	private String[] mFields = new String[] { "*" };
+	/**
+	 * Name of the table, that is selected from.
+	 */
 	private String mFrom;
+	/**
+	 * Join, that is selected from instead of a table. 
+	 */
+	private JoinStatement mFromJoin;
+	/**
+	 * Subselect, that is selected from instead of a table.
+	 */
+	private SelectStatement mFromSelect;
+	private TableJoin mFromTables;
 	private Where mWhere;
 	private OrderBy mOrderBy;
 	private Limit mLimit;
@@ -50,6 +65,38 @@ public class SelectStatement implements Cloneable {
 		return "";
 	}
 	
+	private String buildFrom() {
+		if(mFromJoin != null) {
+			return mFromJoin.toString();
+		}
+		
+		if(mFromSelect != null) {
+			return "(" + mFromSelect.toString() + ")";
+		}
+		
+		if(mFromTables != null) {
+			return mFromTables.toString();
+		}
+		
+		return mFrom;
+	}
+	
+	private String buildFrom(List<String> args) {
+		if(mFromJoin != null) {
+			return mFromJoin.toSQL(args);
+		}
+		
+		if(mFromSelect != null) {
+			return "(" + mFromSelect.toSQL(args) + ")";
+		}
+		
+		if(mFromTables != null) {
+			return mFromTables.toSQL(args);
+		}
+		
+		return mFrom;
+	}
+	
 	private String buildLimit() {
 		if(mLimit != null) {
 			return mLimit.toString();
@@ -95,6 +142,42 @@ public class SelectStatement implements Cloneable {
 		return "";
 	}
 	
+	private String buildWhere(List<String> args) {
+		if(mWhere != null && mWhere.getStatement() != null) {
+			return mWhere.toSQL(args);
+		}
+		
+		return "";
+	}
+	
+	/**
+	 * Adds the names of all tables, that this select reads from, 
+	 * including the ones of subselects and joins.
+	 * 
+	 * @param tables	{@link Set} the table names are added to.
+	 */
+	protected void collectTables(Set<String> tables) {
+		if(mFrom != null) {
+			tables.add(mFrom.replace("`", ""));
+		}
+		
+		if(mFromJoin != null) {
+			mFromJoin.collectTables(tables);
+		}
+		
+		if(mFromSelect != null) {
+			mFromSelect.collectTables(tables);
+		}
+		
+		if(mFromTables != null) {
+			mFromTables.collectTables(tables);
+		}
+		
+		if(mWhere != null) {
+			mWhere.collectTables(tables);
+		}
+	}
+	
 	/**
 	 * Set this select to only return the count of the results. 
 	 * <br /><br />
@@ -134,7 +217,10 @@ public class SelectStatement implements Cloneable {
 	 * @return
 	 */
 	public SelectStatement from(JoinStatement join) {
-		mFrom = join.toString();
+		mFrom = null;
+		mFromJoin = join;
+		mFromSelect = null;
+		mFromTables = null;
 		
 		return this;
 	}
@@ -150,12 +236,34 @@ public class SelectStatement implements Cloneable {
 	 */
 	public SelectStatement from(String table) {
 		mFrom = "`" + table + "`";
+		mFromJoin = null;
+		mFromSelect = null;
+		mFromTables = null;
 		
 		return this;
 	}
 	
 	public SelectStatement from(SelectStatement select) {
-		mFrom = "(" + select.toString() + ")";
+		mFrom = null;
+		mFromJoin = null;
+		mFromSelect = select;
+		mFromTables = null;
+		
+		return this;
+	}
+	
+	/**
+	 * Select from a flat chain of joined tables. Columns have to 
+	 * be qualified with the aliases of their tables. 
+	 * 
+	 * @param tables	{@link TableJoin} of the tables.
+	 * @return
+	 */
+	public SelectStatement from(TableJoin tables) {
+		mFrom = null;
+		mFromJoin = null;
+		mFromSelect = null;
+		mFromTables = tables;
 		
 		return this;
 	}
@@ -213,12 +321,32 @@ public class SelectStatement implements Cloneable {
 		return this;
 	}
 	
+	/**
+	 * Renders the select with a <code>?</code> placeholder for 
+	 * each value of its {@link Where} clauses, including the 
+	 * ones of subselects and joins. See {@link Statement#toSQL(List)}.
+	 * 
+	 * @param args	{@link List} the bind arguments are appended to.
+	 * @return The select with placeholders.
+	 */
+	public String toSQL(List<String> args) {
+		String from = buildFrom(args);
+		
+		return "SELECT"
+			+ buildDistinct()
+			+ buildSelect()
+			+ " FROM " + from
+			+ buildWhere(args)
+			+ buildOrderBy()
+			+ buildLimit();
+	}
+	
 	@Override
 	public String toString() {
 		return "SELECT"
 			+ buildDistinct()
 			+ buildSelect()
-			+ " FROM " + mFrom
+			+ " FROM " + buildFrom()
 			+ buildWhere()
 			+ buildOrderBy()
 			+ buildLimit();
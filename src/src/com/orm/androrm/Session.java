@@ -0,0 +1,236 @@
+/**
+ * 	Copyright (c) 2010 Philipp Giese
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.orm.androrm;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Identity map for all models, that are fetched on one thread while
+ * the session is open. As long as a model is referenced somewhere 
+ * else, each further query returning its row hands out the same
+ * instance instead of creating a new one. 
+ * <br /><br />
+ * Sessions are optional and have to be opened explicitly:
+ * 
+ * <pre>
+ * Session session = Session.open();
+ * 
+ * try {
+ *     ...
+ * } finally {
+ *     session.close();
+ * }
+ * </pre>
+ * 
+ * Opening a session while another one is open on the same thread
+ * joins the open session. It is closed, when the outermost call to
+ * {@link Session#close()} happens. 
+ * 
+ * @author Philipp Giese
+ */
+public class Session {
+
+	/**
+	 * Identifies a model by its class and id.
+	 */
+	private static class Key {
+		
+		private Class<? extends Model> mClass;
+		private int mId;
+		
+		public Key(Class<? extends Model> clazz, int id) {
+			mClass = clazz;
+			mId = id;
+		}
+		
+		@Override
+		public boolean equals(Object o) {
+			if(o instanceof Key) {
+				Key k = (Key) o;
+				
+				return mId == k.mId && mClass.equals(k.mClass);
+			}
+			
+			return false;
+		}
+		
+		@Override
+		public int hashCode() {
+			return 31 * mClass.hashCode() + mId;
+		}
+	}
+	
+	/**
+	 * Weak reference to a model, that remembers its key, so that 
+	 * it can be removed once the model has been collected.
+	 */
+	private static class Entry extends WeakReference<Model> {
+		
+		private Key mKey;
+		
+		public Entry(Key key, Model model, ReferenceQueue<Model> queue) {
+			super(model, queue);
+			
+			mKey = key;
+		}
+	}
+	
+	private static final ThreadLocal<Session> CURRENT = new ThreadLocal<Session>();
+	
+	/**
+	 * @return The session open on the current thread or <code>null</code>.
+	 */
+	public static Session getCurrent() {
+		return CURRENT.get();
+	}
+	
+	/**
+	 * Opens a session on the current thread or joins the one,
+	 * that is already open. 
+	 * 
+	 * @return The open {@link Session}.
+	 */
+	public static Session open() {
+		Session session = CURRENT.get();
+		
+		if(session == null) {
+			session = new Session();
+			CURRENT.set(session);
+		}
+		
+		session.mDepth++;
+		
+		return session;
+	}
+	
+	private Map<Key, Entry> mModels;
+	private ReferenceQueue<Model> mQueue;
+	/**
+	 * Number of {@link Session#open()} calls, that have not been closed yet. 
+	 */
+	private int mDepth;
+	
+	private Session() {
+		mModels = new HashMap<Key, Entry>();
+		mQueue = new ReferenceQueue<Model>();
+	}
+	
+	/**
+	 * Closes this session. If it has been joined, it stays open 
+	 * until the outermost caller closes it. 
+	 */
+	public void close() {
+		if(mDepth == 0) {
+			return;
+		}
+		
+		mDepth--;
+		
+		if(mDepth == 0) {
+			mModels.clear();
+			
+			if(CURRENT.get() == this) {
+				CURRENT.remove();
+			}
+		}
+	}
+	
+	/**
+	 * Removes all entries, whose models have already been collected.
+	 */
+	private void expunge() {
+		Entry entry;
+		
+		while((entry = (Entry) mQueue.poll()) != null) {
+			if(mModels.get(entry.mKey) == entry) {
+				mModels.remove(entry.mKey);
+			}
+		}
+	}
+	
+	/**
+	 * Gets the instance of a model, that has already been fetched 
+	 * in this session. 
+	 * 
+	 * @param clazz	Class of the model.
+	 * @param id	Id of the model.
+	 * 
+	 * @return The instance or <code>null</code> if it is not known.
+	 */
+	public <T extends Model> T get(Class<T> clazz, int id) {
+		expunge();
+		
+		Entry entry = mModels.get(new Key(clazz, id));
+		
+		if(entry != null) {
+			return clazz.cast(entry.get());
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * @return <code>true</code> if this session has not been closed yet.
+	 */
+	public boolean isOpen() {
+		return mDepth > 0;
+	}
+	
+	/**
+	 * Adds a model to this session. Models, that have not been 
+	 * saved yet, are ignored. 
+	 * 
+	 * @param model	The model.
+	 */
+	public void put(Model model) {
+		if(model.getId() == 0) {
+			return;
+		}
+		
+		expunge();
+		
+		Key key = new Key(model.getClass(), model.getId());
+		mModels.put(key, new Entry(key, model, mQueue));
+	}
+	
+	/**
+	 * Removes a model from this session. 
+	 * 
+	 * @param model	The model.
+	 */
+	public void remove(Model model) {
+		mModels.remove(new Key(model.getClass(), model.getId()));
+	}
+	
+	/**
+	 * @return Number of models known to this session. 
+	 */
+	public int size() {
+		expunge();
+		
+		return mModels.size();
+	}
+}
@@ -23,8 +23,11 @@
 package com.orm.androrm;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
+import android.util.Log;
+
 /**
  * This class is the superclass of all statements. The whole statement
  * structure is used to build up where complex {@link Where} clauses. The 
@@ -52,7 +55,9 @@ import java.util.Set;
  * 
  * @author Philipp Giese
  */
-public class Statement {
+public class Statement implements Cloneable {
+	
+	private static final String TAG = "ANDRORM:STATEMENT";
 	
 	/**
 	 * Key of the statement.
@@ -115,12 +120,68 @@ public class Statement {
 		return keys;
 	}
 	
+	/**
+	 * Adds the tables read by subselects of this statement to
+	 * the given set.
+	 */
+	protected void collectTables(Set<String> tables) {}
+	
 	public void setKey(String key) {
 		mKey = key;
 	}
 	
+	/**
+	 * Creates a copy of this statement, whose key refers to the 
+	 * column of the table with the given alias. This statement 
+	 * itself is left untouched, so it can be rendered again for 
+	 * other queries.
+	 * 
+	 * @param alias	Alias of the table the column belongs to.
+	 * @return The qualified copy.
+	 */
+	protected Statement qualify(String alias) {
+		return rename(alias + "." + mKey);
+	}
+	
+	/**
+	 * @param key	Key of the copy.
+	 * @return A copy of this statement with the given key.
+	 */
+	protected Statement rename(String key) {
+		Statement copy = clone();
+		copy.mKey = key;
+		
+		return copy;
+	}
+	
+	/**
+	 * Renders this statement with a <code>?</code> placeholder instead
+	 * of each value. The values are appended to the given list in the
+	 * order of their placeholders. This way the same SQL is generated
+	 * for all values and SQLite can reuse the compiled statement.
+	 * 
+	 * @param args	{@link List} the bind arguments are appended to.
+	 * @return The statement with placeholders.
+	 */
+	public String toSQL(List<String> args) {
+		args.add(String.valueOf(mValue));
+		
+		return mKey + " " + mOperator + " ?";
+	}
+	
 	@Override
 	public String toString() {
 		return mKey + " " + mOperator + " '" + mValue + "'";
 	}
+	
+	@Override
+	public Statement clone() {
+		try {
+			return (Statement) super.clone();
+		} catch(CloneNotSupportedException e) {
+			Log.e(TAG, "could not clone object", e);
+		}
+		
+		return null;
+	}
 }
@@ -0,0 +1,178 @@
+/**
+ * 	Copyright (c) 2010 Philipp Giese
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.orm.androrm;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+/**
+ * Bounded cache of compiled statements of one database connection,
+ * keyed by their SQL. As values are handed in as bind arguments, all
+ * executions of the same query shape share one compiled statement. 
+ * If the cache is full, the least recently used statement is closed. 
+ * <br /><br />
+ * A {@link SQLiteStatement} can only return a single value. Therefore
+ * only statements without a result, like inserts and upserts, and 
+ * selects of a single value, like counts, are compiled here. Selects
+ * returning rows, including the lookups of {@link QuerySet#get(int)}
+ * and {@link ForeignKeyField#get(android.content.Context)}, are run
+ * through a cursor. They rely on the prepared statement cache of the
+ * platform connection, where one is provided. 
+ * <br /><br />
+ * Statements handed out by {@link StatementCache#acquire(SQLiteDatabase, String)}
+ * are reference counted. They have to be given back with 
+ * {@link SQLiteStatement#releaseReference()} and must not be closed 
+ * by the caller. As a compiled statement can only be executed by one
+ * thread at a time, callers have to synchronize on it while binding and 
+ * executing. 
+ * 
+ * @author Philipp Giese
+ */
+public class StatementCache {
+
+	/**
+	 * Default number of statements, that are kept per connection.
+	 */
+	public static final int DEFAULT_SIZE = 25;
+	
+	private static int SIZE = DEFAULT_SIZE;
+	
+	/**
+	 * Set the number of compiled statements, that are kept for
+	 * each connection. This only affects connections, that are 
+	 * opened afterwards.
+	 * 
+	 * @param size	Maximum number of statements. 
+	 */
+	public static final void setSize(int size) {
+		SIZE = size;
+	}
+	
+	public static final int getSize() {
+		return SIZE;
+	}
+	
+	private Map<String, SQLiteStatement> mStatements;
+	private int mHits;
+	private int mMisses;
+	private int mMaxSize;
+	
+	public StatementCache() {
+		mMaxSize = SIZE;
+		
+		mStatements = new LinkedHashMap<String, SQLiteStatement>(16, 0.75f, true) {
+			
+			private static final long serialVersionUID = 2812451298712358916L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, SQLiteStatement> eldest) {
+				if(size() > mMaxSize) {
+					eldest.getValue().close();
+					
+					return true;
+				}
+				
+				return false;
+			}
+		};
+	}
+	
+	/**
+	 * Gets the compiled statement for the given SQL. If it is not 
+	 * cached yet, it will be compiled on the given database.
+	 * 
+	 * @param db	{@link SQLiteDatabase} to compile the statement on.
+	 * @param sql	SQL of the statement.
+	 * 
+	 * @return The compiled {@link SQLiteStatement} with an acquired reference.
+	 */
+	public synchronized SQLiteStatement acquire(SQLiteDatabase db, String sql) {
+		SQLiteStatement statement = mStatements.get(sql);
+		
+		if(statement == null) {
+			mMisses++;
+			
+			statement = db.compileStatement(sql);
+			
+			if(mMaxSize <= 0) {
+				/*
+				 * Caching is disabled. The reference of the compiled
+				 * statement is handed out directly. 
+				 */
+				return statement;
+			}
+			
+			mStatements.put(sql, statement);
+		} else {
+			mHits++;
+		}
+		
+		statement.acquireReference();
+		
+		return statement;
+	}
+	
+	/**
+	 * Closes all cached statements. This has to be done whenever
+	 * the schema of the database changes.
+	 */
+	public synchronized void clear() {
+		for(SQLiteStatement statement : mStatements.values()) {
+			statement.close();
+		}
+		
+		mStatements.clear();
+	}
+	
+	/**
+	 * @return Number of lookups, that found a compiled statement.
+	 */
+	public synchronized int getHits() {
+		return mHits;
+	}
+	
+	/**
+	 * @return Number of lookups, that had to compile the statement.
+	 */
+	public synchronized int getMisses() {
+		return mMisses;
+	}
+	
+	/**
+	 * Resets the hit and miss counters. 
+	 */
+	public synchronized void resetStatistics() {
+		mHits = 0;
+		mMisses = 0;
+	}
+	
+	/**
+	 * @return Number of currently cached statements.
+	 */
+	public synchronized int size() {
+		return mStatements.size();
+	}
+}
@@ -24,9 +24,11 @@ package com.orm.androrm;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 public class TableDefinition {
 	private String mTableName;
@@ -80,6 +82,39 @@ public class TableDefinition {
 		return definition;
 	}
 	
+	/**
+	 * Each foreign key column gets an index. This way relations can
+	 * be followed in both directions without scanning the whole table,
+	 * which is especially important for relation tables. 
+	 * 
+	 * @return One CREATE INDEX statement for each foreign key column.
+	 */
+	public List<String> getIndexDefinitions() {
+		List<String> indices = new ArrayList<String>();
+		
+		for(String column : mRelations.keySet()) {
+			indices.add("CREATE INDEX IF NOT EXISTS `" 
+					+ mTableName + "_" + column 
+					+ "` ON `" + mTableName + "` (" + column + ");");
+		}
+		
+		return indices;
+	}
+	
+	/**
+	 * @return Names of the tables, that the foreign keys of this
+	 * 			table point to.
+	 */
+	public Set<String> getReferencedTables() {
+		Set<String> tables = new HashSet<String>();
+		
+		for(ForeignKeyField<? extends Model> fk : mRelations.values()) {
+			tables.add(DatabaseBuilder.getTableName(fk.getTarget()));
+		}
+		
+		return tables;
+	}
+	
 	public List<Class<? extends Model>> getRelationalClasses() {
 		return mRelationalClasses;
 	}
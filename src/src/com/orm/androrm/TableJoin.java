@@ -0,0 +1,157 @@
+/**
+ * 	Copyright (c) 2010 Philipp Giese
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.orm.androrm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import android.util.Log;
+
+/**
+ * A flat chain of tables, each joined to the ones before it. In 
+ * contrast to {@link JoinStatement} no subselects are involved, so
+ * SQLite can pick the order of the joins and the indices on its own.
+ * Only the first table may be replaced by a {@link SelectStatement}.
+ * <br /><br />
+ * Each table is referenced by its alias. Thus the columns in the
+ * ON conditions have to be qualified with the alias of their table.
+ * 
+ * @author Philipp Giese
+ */
+public class TableJoin implements Cloneable {
+
+	private static final String TAG = "ANDRORM:TABLE:JOIN";
+	
+	/**
+	 * Replaces the first table, if set. 
+	 */
+	private SelectStatement mFromSelect;
+	private List<String> mTables;
+	private List<String> mAliases;
+	private List<String> mConditions;
+	
+	/**
+	 * @param table	Name of the first table.
+	 * @param alias	Alias of the first table.
+	 */
+	public TableJoin(String table, String alias) {
+		mTables = new ArrayList<String>();
+		mAliases = new ArrayList<String>();
+		mConditions = new ArrayList<String>();
+		
+		mTables.add(table);
+		mAliases.add(alias);
+		mConditions.add(null);
+	}
+	
+	/**
+	 * @param select	Select used as the first table.
+	 * @param alias		Alias of its result.
+	 */
+	public TableJoin(SelectStatement select, String alias) {
+		this((String) null, alias);
+		
+		mFromSelect = select;
+	}
+	
+	private String buildJoins() {
+		String join = "";
+		
+		for(int i = 1, size = mTables.size(); i < size; i++) {
+			join += " JOIN `" + mTables.get(i) + "` AS " + mAliases.get(i) 
+				+ " ON " + mConditions.get(i);
+		}
+		
+		return join;
+	}
+	
+	protected void collectTables(Set<String> tables) {
+		if(mFromSelect != null) {
+			mFromSelect.collectTables(tables);
+		} else {
+			tables.add(mTables.get(0));
+		}
+		
+		tables.addAll(mTables.subList(1, mTables.size()));
+	}
+	
+	/**
+	 * Joins the given table to the chain. 
+	 * 
+	 * @param table		Name of the table.
+	 * @param alias		Alias of the table.
+	 * @param column	Column of the joined table.
+	 * @param other		Qualified column of a table, that has already
+	 * 					been joined. Rows match, if both columns hold
+	 * 					the same value.
+	 * @return <code>this</code> for chaining.
+	 */
+	public TableJoin join(String table, String alias, String column, String other) {
+		mTables.add(table);
+		mAliases.add(alias);
+		mConditions.add(alias + "." + column + "=" + other);
+		
+		return this;
+	}
+	
+	/**
+	 * See {@link SelectStatement#toSQL(List)}.
+	 */
+	public String toSQL(List<String> args) {
+		if(mFromSelect != null) {
+			return "(" + mFromSelect.toSQL(args) + ") AS " + mAliases.get(0) + buildJoins();
+		}
+		
+		return toString();
+	}
+	
+	@Override
+	public String toString() {
+		if(mFromSelect != null) {
+			return "(" + mFromSelect.toString() + ") AS " + mAliases.get(0) + buildJoins();
+		}
+		
+		return "`" + mTables.get(0) + "` AS " + mAliases.get(0) + buildJoins();
+	}
+	
+	/**
+	 * @return A copy of this chain, that can be extended without
+	 * 			changing this one. 
+	 */
+	@Override
+	public TableJoin clone() {
+		try {
+			TableJoin copy = (TableJoin) super.clone();
+			copy.mTables = new ArrayList<String>(mTables);
+			copy.mAliases = new ArrayList<String>(mAliases);
+			copy.mConditions = new ArrayList<String>(mConditions);
+			
+			return copy;
+		} catch(CloneNotSupportedException e) {
+			Log.e(TAG, "could not clone object", e);
+		}
+		
+		return null;
+	}
+}
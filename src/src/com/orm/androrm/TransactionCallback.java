@@ -0,0 +1,44 @@
+/**
+ * 	Copyright (c) 2010 Philipp Giese
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.orm.androrm;
+
+/**
+ * Implement this interface in order to run a set of database 
+ * operations atomically via 
+ * {@link DatabaseAdapter#runInTransaction(TransactionCallback)}.
+ * 
+ * @author Philipp Giese
+ */
+public interface TransactionCallback {
+	/**
+	 * All operations executed in this method will be part of 
+	 * the same transaction. If this method throws an exception
+	 * the transaction will be rolled back. 
+	 * 
+	 * @param adapter	{@link DatabaseAdapter} running the transaction.
+	 * 
+	 * @return 	<code>true</code> if the transaction shall be committed,
+	 * 			<code>false</code> if it shall be rolled back.
+	 */
+	public boolean run(DatabaseAdapter adapter);
+}
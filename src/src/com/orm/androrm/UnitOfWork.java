@@ -0,0 +1,196 @@
+/**
+ * 	Copyright (c) 2010 Philipp Giese
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.orm.androrm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.content.Context;
+
+/**
+ * A unit of work collects calls to save and delete models and 
+ * executes all of them in a single transaction once 
+ * {@link UnitOfWork#commit()} is called. Writing many models this 
+ * way is a lot faster than saving them one by one, as the database
+ * only has to sync its journal once. 
+ * <br /><br />
+ * <b>Example:</b><br />
+ * <pre>
+ * UnitOfWork work = new UnitOfWork(context);
+ * 
+ * for(Product product : products) {
+ *     work.save(product);
+ * }
+ * 
+ * work.commit();
+ * </pre>
+ * 
+ * If a unit of work is committed while another transaction is in 
+ * progress, it will be executed as a savepoint of that transaction. 
+ * 
+ * @author Philipp Giese
+ */
+public class UnitOfWork {
+
+	/**
+	 * A single pending save or delete.
+	 */
+	private static class Operation {
+		
+		private Model mModel;
+		private boolean mDelete;
+		/**
+		 * Id of the model at the time the unit of work 
+		 * has been committed. 
+		 */
+		private int mPreviousId;
+		
+		public Operation(Model model, boolean delete) {
+			mModel = model;
+			mDelete = delete;
+		}
+	}
+	
+	private Context mContext;
+	private List<Operation> mOperations;
+	
+	public UnitOfWork(Context context) {
+		mContext = context;
+		mOperations = new ArrayList<Operation>();
+	}
+	
+	/**
+	 * Discards all pending operations.
+	 */
+	public void clear() {
+		mOperations.clear();
+	}
+	
+	/**
+	 * Executes all pending operations in the order they were added
+	 * in a single transaction. If any of them fails, none of the changes
+	 * will be written to the database. 
+	 * <br /><br />
+	 * After this call the unit of work is empty and can be reused.
+	 * 
+	 * @return 	<code>true</code> if all operations succeeded, 
+	 * 			<code>false</code> otherwise.
+	 */
+	public boolean commit() {
+		final List<Operation> operations = new ArrayList<Operation>(mOperations);
+		mOperations.clear();
+		
+		for(Operation operation : operations) {
+			operation.mPreviousId = operation.mModel.getId();
+		}
+		
+		DatabaseAdapter adapter = DatabaseAdapter.getInstance(mContext);
+		
+		boolean success = false;
+		
+		try {
+			success = adapter.runInTransaction(new TransactionCallback() {
+				
+				@Override
+				public boolean run(DatabaseAdapter adapter) {
+					for(Operation operation : operations) {
+						if(!execute(operation)) {
+							return false;
+						}
+					}
+					
+					return true;
+				}
+			});
+		} finally {
+			finish(operations, success);
+		}
+		
+		return success;
+	}
+	
+	/**
+	 * Marks the given model for deletion.
+	 * 
+	 * @param model	Model that shall be deleted.
+	 * @return <code>this</code> for chaining.
+	 */
+	public UnitOfWork delete(Model model) {
+		if(model != null) {
+			mOperations.add(new Operation(model, true));
+		}
+		
+		return this;
+	}
+	
+	private boolean execute(Operation operation) {
+		if(operation.mDelete) {
+			return operation.mModel.deleteRow(mContext);
+		}
+		
+		return operation.mModel.save(mContext);
+	}
+	
+	private void finish(List<Operation> operations, boolean success) {
+		/*
+		 * Saved models are marked as clean by the adapter, once
+		 * the outermost transaction has been committed.
+		 */
+		for(Operation operation : operations) {
+			Model model = operation.mModel;
+			
+			if(success) {
+				if(operation.mDelete) {
+					model.clearAfterDelete();
+				}
+			} else {
+				/*
+				 * Ids assigned to new models during the transaction
+				 * do not exist anymore after the rollback. 
+				 */
+				model.setId(operation.mPreviousId);
+			}
+		}
+	}
+	
+	/**
+	 * Marks the given model to be saved. 
+	 * 
+	 * @param model	Model that shall be saved.
+	 * @return <code>this</code> for chaining.
+	 */
+	public UnitOfWork save(Model model) {
+		if(model != null) {
+			mOperations.add(new Operation(model, false));
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * @return Number of pending operations.
+	 */
+	public int size() {
+		return mOperations.size();
+	}
+}
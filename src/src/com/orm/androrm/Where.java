@@ -23,6 +23,7 @@
 package com.orm.androrm;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import android.database.sqlite.SQLiteDatabase;
@@ -145,10 +146,27 @@ public class Where {
 		mStatement = stmt;
 	}
 	
+	protected void collectTables(Set<String> tables) {
+		if(mStatement != null) {
+			mStatement.collectTables(tables);
+		}
+	}
+	
 	public Statement getStatement() {
 		return mStatement;
 	}
 	
+	/**
+	 * See {@link Statement#toSQL(List)}.
+	 */
+	public String toSQL(List<String> args) {
+		if(mStatement != null) {
+			return " WHERE " + mStatement.toSQL(args);
+		}
+		
+		return null;
+	}
+	
 	@Override
 	public String toString() {
 		if(mStatement != null) {
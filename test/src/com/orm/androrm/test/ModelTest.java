@@ -7,6 +7,7 @@ import android.test.AndroidTestCase;
 
 import com.orm.androrm.DatabaseAdapter;
 import com.orm.androrm.Model;
+import com.orm.androrm.TransactionCallback;
 import com.orm.androrm.impl.BlankModel;
 import com.orm.androrm.impl.BlankModelNoAutoincrement;
 
@@ -52,6 +53,53 @@ public class ModelTest extends AndroidTestCase {
 		assertTrue(m.save(getContext()));
 	}
 	
+	public void testBulkCreateExplicitIds() {
+		final BlankModelNoAutoincrement m = new BlankModelNoAutoincrement();
+		
+		// the id is kept, although the row is rolled back
+		DatabaseAdapter.getInstance(getContext()).runInTransaction(new TransactionCallback() {
+			
+			@Override
+			public boolean run(DatabaseAdapter adapter) {
+				m.save(getContext(), 5);
+				
+				return false;
+			}
+		});
+		
+		assertEquals(5, m.getId());
+		
+		List<BlankModelNoAutoincrement> models = new ArrayList<BlankModelNoAutoincrement>();
+		models.add(m);
+		
+		assertTrue(Model.objects(getContext(), BlankModelNoAutoincrement.class).bulkCreate(models));
+		assertEquals(1, Model.objects(getContext(), BlankModelNoAutoincrement.class).all().count());
+		assertEquals(5, Model.objects(getContext(), BlankModelNoAutoincrement.class).get(5).getId());
+		
+		// without an id the row can not be written
+		models.clear();
+		models.add(new BlankModelNoAutoincrement());
+		
+		assertFalse(Model.objects(getContext(), BlankModelNoAutoincrement.class).bulkCreate(models));
+		assertEquals(1, Model.objects(getContext(), BlankModelNoAutoincrement.class).all().count());
+	}
+	
+	public void testSaveUpdatesExistingRow() {
+		Model m = new BlankModelNoAutoincrement();
+		assertTrue(m.save(getContext(), 5));
+		
+		Model other = new BlankModelNoAutoincrement();
+		assertTrue(other.save(getContext(), 5));
+		
+		assertEquals(1, Model.objects(getContext(), BlankModelNoAutoincrement.class).all().count());
+		
+		BlankModel b = new BlankModel();
+		b.save(getContext());
+		assertTrue(b.save(getContext()));
+		
+		assertEquals(1, Model.objects(getContext(), BlankModel.class).all().count());
+	}
+	
 	public void testDelete() {
 		BlankModel m = new BlankModel();
 		
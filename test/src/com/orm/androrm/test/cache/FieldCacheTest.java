@@ -10,6 +10,8 @@ import com.orm.androrm.DatabaseAdapter;
 import com.orm.androrm.Model;
 import com.orm.androrm.ModelCache;
 import com.orm.androrm.impl.BlankModel;
+import com.orm.androrm.impl.Branch;
+import com.orm.androrm.impl.Brand;
 
 public class FieldCacheTest extends AndroidTestCase {
 
@@ -47,6 +49,48 @@ public class FieldCacheTest extends AndroidTestCase {
 		adapter.drop();
 	}
 	
+	public void testInheritedField() {
+		List<Class<? extends Model>> models = new ArrayList<Class<? extends Model>>();
+		models.add(BlankModel.class);
+
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.setModels(models);
+		
+		assertTrue(ModelCache.modelHasField(BlankModel.class, Model.PK));
+		assertEquals(Model.class, ModelCache.getField(BlankModel.class, Model.PK).getDeclaringClass());
+		assertNull(ModelCache.getField(BlankModel.class, "mUnknown"));
+		
+		adapter.drop();
+	}
+	
+	public void testForeignKey() {
+		List<Class<? extends Model>> models = new ArrayList<Class<? extends Model>>();
+		models.add(Brand.class);
+		models.add(Branch.class);
+
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.setModels(models);
+		
+		Brand brand = new Brand();
+		brand.setName("Copcal");
+		brand.save(getContext());
+		
+		Branch branch = new Branch();
+		branch.setName("Cashbuild Pretoria");
+		branch.setBrand(brand);
+		branch.save(getContext());
+		
+		// the back link is found through the foreign key of the branch
+		assertEquals(1, brand.branchCount(getContext()));
+		
+		// the plans are rebuilt, once the cache has been reset
+		ModelCache.reset();
+		
+		assertEquals(1, brand.branchCount(getContext()));
+		
+		adapter.drop();
+	}
+	
 	public void tearDown() {
 		ModelCache.reset();
 	}
@@ -41,6 +41,18 @@ public class TableDefinitionTest extends AndroidTestCase {
 						+ "ON DELETE CASCADE);", def.toString());
 	}
 	
+	public void testIndexDefinitions() {
+		TableDefinition def = new TableDefinition("foo");
+		
+		def.addField("pk", new IntegerField());
+		def.addField("product", new ForeignKeyField<Product>(Product.class));
+		
+		List<String> indices = def.getIndexDefinitions();
+		
+		assertEquals(1, indices.size());
+		assertEquals("CREATE INDEX IF NOT EXISTS `foo_product` ON `foo` (product);", indices.get(0));
+	}
+	
 	public void testRelationalClasses() {
 		TableDefinition def = new TableDefinition("foo");
 		
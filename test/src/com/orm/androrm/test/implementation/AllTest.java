@@ -7,9 +7,21 @@ public class AllTest extends TestSuite {
 	public static Test suite() {
 		TestSuite suite = new TestSuite();
 		
+		suite.addTestSuite(ConnectionManagerTest.class);
+		suite.addTestSuite(DeferredFieldTest.class);
+		suite.addTestSuite(DirtyTrackingTest.class);
 		suite.addTestSuite(FieldResulutionTest.class);
+		suite.addTestSuite(InstanceCacheTest.class);
+		suite.addTestSuite(InstanceFactoryTest.class);
+		suite.addTestSuite(QueryCacheTest.class);
+		suite.addTestSuite(QueryCompilerTest.class);
 		suite.addTestSuite(QuerySetTest.class);
+		suite.addTestSuite(SessionTest.class);
+		suite.addTestSuite(StatementCacheTest.class);
 		suite.addTestSuite(FilterTest.class);
+		suite.addTestSuite(ModelAdapterTest.class);
+		suite.addTestSuite(TransactionTest.class);
+		suite.addTestSuite(WriteAheadLogTest.class);
 		
 		return suite;
 	}
@@ -0,0 +1,70 @@
+package com.orm.androrm.test.implementation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.test.AndroidTestCase;
+
+import com.orm.androrm.ConnectionManager;
+import com.orm.androrm.DatabaseAdapter;
+import com.orm.androrm.Model;
+import com.orm.androrm.impl.BlankModel;
+
+public class ConnectionManagerTest extends AndroidTestCase {
+
+	@Override
+	public void setUp() {
+		List<Class<? extends Model>> models = new ArrayList<Class<? extends Model>>();
+		models.add(BlankModel.class);
+		
+		DatabaseAdapter.setDatabaseName("test_db");
+		
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.setModels(models);
+	}
+	
+	public void testSharedAdapter() {
+		assertSame(DatabaseAdapter.getInstance(getContext()), 
+				DatabaseAdapter.getInstance(getContext()));
+	}
+	
+	public void testConnectionStaysOpen() {
+		BlankModel b = new BlankModel();
+		b.setName("test");
+		b.save(getContext());
+		
+		assertTrue(ConnectionManager.isOpen("test_db"));
+		assertEquals(0, ConnectionManager.getReferenceCount("test_db"));
+	}
+	
+	public void testNestedOpen() {
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		
+		adapter.open();
+		adapter.open();
+		assertEquals(1, ConnectionManager.getReferenceCount("test_db"));
+		
+		adapter.close();
+		assertEquals(1, ConnectionManager.getReferenceCount("test_db"));
+		
+		adapter.close();
+		assertEquals(0, ConnectionManager.getReferenceCount("test_db"));
+	}
+	
+	public void testDeferredClose() {
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.open();
+		
+		ConnectionManager.close("test_db");
+		assertTrue(ConnectionManager.isOpen("test_db"));
+		
+		adapter.close();
+		assertFalse(ConnectionManager.isOpen("test_db"));
+	}
+	
+	@Override
+	public void tearDown() {
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.drop();
+	}
+}
@@ -0,0 +1,78 @@
+package com.orm.androrm.test.implementation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.location.Location;
+import android.location.LocationManager;
+import android.test.AndroidTestCase;
+
+import com.orm.androrm.DatabaseAdapter;
+import com.orm.androrm.Model;
+import com.orm.androrm.NoSuchFieldException;
+import com.orm.androrm.impl.BlankModel;
+
+public class DeferredFieldTest extends AndroidTestCase {
+
+	@Override
+	public void setUp() {
+		List<Class<? extends Model>> models = new ArrayList<Class<? extends Model>>();
+		models.add(BlankModel.class);
+		
+		DatabaseAdapter.setDatabaseName("test_db");
+		
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.setModels(models);
+		
+		Location l = new Location(LocationManager.GPS_PROVIDER);
+		l.setLatitude(1.0);
+		l.setLongitude(2.0);
+		
+		BlankModel b = new BlankModel();
+		b.setName("Copcal");
+		b.setLocation(l);
+		b.save(getContext());
+	}
+	
+	public void testOnly() {
+		BlankModel b = Model.objects(getContext(), BlankModel.class).all().only("mName").toList().get(0);
+		
+		assertEquals(1, b.getId());
+		assertEquals("Copcal", b.getName());
+		assertEquals(2.0, b.getLocation().getLongitude());
+	}
+	
+	public void testDefer() {
+		BlankModel b = Model.objects(getContext(), BlankModel.class).all().defer("mLocation").get(1);
+		
+		assertEquals("Copcal", b.getName());
+		assertEquals(1.0, b.getLocation().getLatitude());
+	}
+	
+	public void testSaveKeepsDeferredValue() {
+		BlankModel b = Model.objects(getContext(), BlankModel.class).all().only("mName").toList().get(0);
+		b.setName("Lumen");
+		b.save(getContext());
+		
+		b = Model.objects(getContext(), BlankModel.class).get(1);
+		
+		assertEquals("Lumen", b.getName());
+		assertEquals(1.0, b.getLocation().getLatitude());
+	}
+	
+	public void testUnknownField() {
+		try {
+			Model.objects(getContext(), BlankModel.class).only("mFoo");
+			
+			fail();
+		} catch(NoSuchFieldException e) {
+			
+		}
+	}
+	
+	@Override
+	public void tearDown() {
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.drop();
+	}
+}
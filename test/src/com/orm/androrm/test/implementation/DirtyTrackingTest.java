@@ -0,0 +1,153 @@
+package com.orm.androrm.test.implementation;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import android.test.AndroidTestCase;
+
+import com.orm.androrm.DatabaseAdapter;
+import com.orm.androrm.Model;
+import com.orm.androrm.impl.BlankModel;
+import com.orm.androrm.impl.Branch;
+import com.orm.androrm.impl.Brand;
+
+public class DirtyTrackingTest extends AndroidTestCase {
+
+	@Override
+	public void setUp() {
+		List<Class<? extends Model>> models = new ArrayList<Class<? extends Model>>();
+		models.add(BlankModel.class);
+		models.add(Brand.class);
+		models.add(Branch.class);
+		
+		DatabaseAdapter.setDatabaseName("test_db");
+		
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.setModels(models);
+	}
+	
+	public void testNewModelIsDirty() {
+		BlankModel b = new BlankModel();
+		assertTrue(b.isDirty());
+		
+		b.setName("test");
+		b.save(getContext());
+		
+		assertFalse(b.isDirty());
+	}
+	
+	public void testLoadedModelIsClean() {
+		BlankModel b = new BlankModel();
+		b.setName("test");
+		b.save(getContext());
+		
+		BlankModel loaded = Model.objects(getContext(), BlankModel.class).get(b.getId());
+		
+		assertFalse(loaded.isDirty());
+		assertTrue(loaded.save(getContext()));
+		
+		loaded.setName("test");
+		assertTrue(loaded.isDirty());
+	}
+	
+	public void testInPlaceChange() {
+		BlankModel b = new BlankModel();
+		b.setDate(new Date(0));
+		b.save(getContext());
+		
+		BlankModel loaded = Model.objects(getContext(), BlankModel.class).get(b.getId());
+		loaded.getDate().setTime(1000L * 60 * 60 * 24);
+		
+		assertTrue(loaded.isDirty());
+		assertTrue(loaded.save(getContext()));
+		
+		loaded = Model.objects(getContext(), BlankModel.class).get(b.getId());
+		
+		assertEquals(1000L * 60 * 60 * 24, loaded.getDate().getTime());
+	}
+	
+	public void testSaveAfterDelete() {
+		BlankModel b = new BlankModel();
+		b.setName("test");
+		b.save(getContext());
+		
+		Model.objects(getContext(), BlankModel.class).get(b.getId()).delete(getContext());
+		
+		// the row has been deleted through another instance
+		assertTrue(b.isDirty());
+		assertTrue(b.save(getContext()));
+		assertEquals(1, Model.objects(getContext(), BlankModel.class).count());
+	}
+	
+	public void testPartialUpdate() {
+		BlankModel b = new BlankModel();
+		b.setName("test");
+		b.setDate(new Date(0));
+		b.save(getContext());
+		
+		BlankModel first = Model.objects(getContext(), BlankModel.class).get(b.getId());
+		BlankModel second = Model.objects(getContext(), BlankModel.class).get(b.getId());
+		
+		first.setName("changed");
+		first.save(getContext());
+		
+		second.setDate(new Date(1000L * 60 * 60 * 24));
+		second.save(getContext());
+		
+		BlankModel loaded = Model.objects(getContext(), BlankModel.class).get(b.getId());
+		
+		// the second save must only have written the date
+		assertEquals("changed", loaded.getName());
+		assertEquals(1000L * 60 * 60 * 24, loaded.getDate().getTime());
+	}
+	
+	public void testRelations() {
+		Brand brand = new Brand();
+		brand.setName("Copcal");
+		brand.save(getContext());
+		
+		Branch branch = new Branch();
+		branch.setName("Cashbuild Pretoria");
+		branch.save(getContext());
+		
+		assertFalse(brand.isDirty());
+		
+		brand.addBranch(branch);
+		
+		assertTrue(brand.isDirty());
+		assertTrue(brand.save(getContext()));
+		assertFalse(brand.isDirty());
+		assertEquals(1, brand.branchCount(getContext()));
+	}
+	
+	public void testLinkedModelChange() {
+		Brand brand = new Brand();
+		brand.setName("Copcal");
+		brand.save(getContext());
+		
+		Branch branch = new Branch();
+		branch.setName("Cashbuild Pretoria");
+		branch.save(getContext());
+		
+		brand.addBranch(branch);
+		brand.save(getContext());
+		
+		branch.setName("Cashbuild Polokwane");
+		
+		// saving the brand also saves its branches
+		assertTrue(brand.isDirty());
+		assertTrue(brand.save(getContext()));
+		assertFalse(branch.isDirty());
+		
+		Branch loaded = Branch.objects(getContext()).get(branch.getId());
+		
+		assertEquals("Cashbuild Polokwane", loaded.getName());
+	}
+	
+	@Override
+	public void tearDown() {
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.drop();
+	}
+}
@@ -0,0 +1,151 @@
+package com.orm.androrm.test.implementation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.test.AndroidTestCase;
+
+import com.orm.androrm.DatabaseAdapter;
+import com.orm.androrm.DatabaseBuilder;
+import com.orm.androrm.InstanceCache;
+import com.orm.androrm.Model;
+import com.orm.androrm.TransactionCallback;
+import com.orm.androrm.Where;
+import com.orm.androrm.impl.Branch;
+import com.orm.androrm.impl.Brand;
+
+public class InstanceCacheTest extends AndroidTestCase {
+
+	@Override
+	public void setUp() {
+		List<Class<? extends Model>> models = new ArrayList<Class<? extends Model>>();
+		models.add(Brand.class);
+		models.add(Branch.class);
+		
+		DatabaseAdapter.setDatabaseName("test_db");
+		
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.setModels(models);
+		
+		InstanceCache.setSize(10);
+		InstanceCache.resetStatistics();
+		
+		Brand b = new Brand();
+		b.setName("Copcal");
+		b.save(getContext());
+		
+		Branch branch = new Branch();
+		branch.setName("Cashbuild Pretoria");
+		branch.setBrand(b);
+		branch.save(getContext());
+	}
+	
+	public void testHit() {
+		Brand b1 = Brand.objects(getContext()).get(1);
+		Brand b2 = Brand.objects(getContext()).get(1);
+		
+		assertSame(b1, b2);
+		assertEquals(1, InstanceCache.getMisses());
+		assertEquals(1, InstanceCache.getHits());
+		assertSame(b1, Branch.objects(getContext()).get(1).getBrand(getContext()));
+	}
+	
+	public void testFilteredQueriesBypassCache() {
+		Brand b = Brand.objects(getContext()).get(1);
+		
+		assertNotSame(b, Brand.objects(getContext()).all().get(1));
+	}
+	
+	public void testSaveEvicts() {
+		Brand b = Brand.objects(getContext()).get(1);
+		b.setName("Susi");
+		b.save(getContext());
+		
+		Brand fresh = Brand.objects(getContext()).get(1);
+		
+		assertNotSame(b, fresh);
+		assertEquals("Susi", fresh.getName());
+	}
+	
+	public void testSaveInTransactionEvictsOnCommit() {
+		final Brand stale = Brand.objects(getContext()).get(1);
+		
+		DatabaseAdapter.getInstance(getContext()).runInTransaction(new TransactionCallback() {
+			
+			@Override
+			public boolean run(DatabaseAdapter adapter) {
+				Brand b = Brand.objects(getContext()).all().get(1);
+				b.setName("Susi");
+				b.save(getContext());
+				
+				// another connection still reads the old row and caches it
+				InstanceCache.put("test_db", stale);
+				
+				return true;
+			}
+		});
+		
+		assertEquals("Susi", Brand.objects(getContext()).get(1).getName());
+	}
+	
+	public void testDatabasesAreSeparated() {
+		Brand b = Brand.objects(getContext()).get(1);
+		
+		assertSame(b, InstanceCache.get("test_db", Brand.class, 1));
+		assertNull(InstanceCache.get("other_db", Brand.class, 1));
+	}
+	
+	public void testDeleteEvicts() {
+		Brand other = new Brand();
+		other.setName("Susi");
+		other.save(getContext());
+		
+		Brand.objects(getContext()).get(1);
+		Branch.objects(getContext()).get(1);
+		Brand cached = Brand.objects(getContext()).get(other.getId());
+		assertEquals(3, InstanceCache.size());
+		
+		Brand.objects(getContext()).get(1).delete(getContext());
+		
+		// the delete has cascaded to the branch
+		assertEquals(1, InstanceCache.size());
+		assertNull(Branch.objects(getContext()).get(1));
+		assertSame(cached, Brand.objects(getContext()).get(other.getId()));
+	}
+	
+	public void testDeleteWithoutRows() {
+		Brand.objects(getContext()).get(1);
+		Branch.objects(getContext()).get(1);
+		
+		Where where = new Where();
+		where.and(Model.PK, 42);
+		
+		DatabaseAdapter adapter = DatabaseAdapter.getInstance(getContext());
+		assertEquals(0, adapter.delete(DatabaseBuilder.getTableName(Brand.class), where));
+		assertEquals(2, InstanceCache.size());
+	}
+	
+	public void testSize() {
+		InstanceCache.setSize(1);
+		
+		Brand.objects(getContext()).get(1);
+		Branch.objects(getContext()).get(1);
+		
+		assertEquals(1, InstanceCache.size());
+		assertEquals(1, InstanceCache.getEvictions());
+		
+		InstanceCache.setSize(0);
+		
+		assertEquals(0, InstanceCache.size());
+		assertNotSame(Brand.objects(getContext()).get(1), Brand.objects(getContext()).get(1));
+	}
+	
+	@Override
+	public void tearDown() {
+		InstanceCache.setSize(0);
+		InstanceCache.resetStatistics();
+		
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.drop();
+	}
+}
@@ -0,0 +1,62 @@
+package com.orm.androrm.test.implementation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.test.AndroidTestCase;
+
+import com.orm.androrm.DatabaseAdapter;
+import com.orm.androrm.InstanceFactories;
+import com.orm.androrm.InstanceFactory;
+import com.orm.androrm.Model;
+import com.orm.androrm.impl.BlankModel;
+
+public class InstanceFactoryTest extends AndroidTestCase {
+
+	private int mCreated;
+	
+	@Override
+	public void setUp() {
+		List<Class<? extends Model>> models = new ArrayList<Class<? extends Model>>();
+		models.add(BlankModel.class);
+		
+		DatabaseAdapter.setDatabaseName("test_db");
+		
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.setModels(models);
+		
+		mCreated = 0;
+	}
+	
+	public void testRegisteredFactory() {
+		for(int i = 0; i < 2; i++) {
+			BlankModel b = new BlankModel();
+			b.setName("Copcal " + i);
+			b.save(getContext());
+		}
+		
+		InstanceFactories.register(BlankModel.class, new InstanceFactory<BlankModel>() {
+
+			@Override
+			public BlankModel newInstance() {
+				mCreated++;
+				
+				return new BlankModel();
+			}
+		});
+		
+		List<BlankModel> items = Model.objects(getContext(), BlankModel.class).all().toList();
+		
+		assertEquals(2, items.size());
+		assertEquals("Copcal 1", items.get(1).getName());
+		assertTrue(mCreated >= 2);
+	}
+	
+	@Override
+	public void tearDown() {
+		InstanceFactories.reset();
+		
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.drop();
+	}
+}
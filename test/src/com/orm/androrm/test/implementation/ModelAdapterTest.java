@@ -0,0 +1,92 @@
+package com.orm.androrm.test.implementation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.test.AndroidTestCase;
+
+import com.orm.androrm.CharField;
+import com.orm.androrm.DatabaseAdapter;
+import com.orm.androrm.Model;
+import com.orm.androrm.ModelAdapter;
+import com.orm.androrm.ModelAdapters;
+import com.orm.androrm.impl.BlankModel;
+import com.orm.androrm.impl.Branch;
+import com.orm.androrm.impl.Brand;
+
+public class ModelAdapterTest extends AndroidTestCase {
+
+	public static class UntypedModel extends Model {
+		
+		// the processor can not tell, that this is a database field
+		protected Object mName;
+		
+		public UntypedModel() {
+			super();
+			
+			mName = new CharField();
+		}
+	}
+
+	@Override
+	public void setUp() {
+		List<Class<? extends Model>> models = new ArrayList<Class<? extends Model>>();
+		models.add(Brand.class);
+		models.add(Branch.class);
+		models.add(BlankModel.class);
+		
+		DatabaseAdapter.setDatabaseName("test_db");
+		
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.setModels(models);
+	}
+	
+	public void testGeneratedAdapter() throws ClassNotFoundException {
+		assertNotNull(Class.forName(Brand.class.getName() + ModelAdapters.SUFFIX));
+		
+		ModelAdapter<Brand> adapter = ModelAdapters.get(Brand.class);
+		String[] fieldNames = adapter.getFieldNames();
+		
+		assertEquals(3, fieldNames.length);
+		assertEquals(Model.PK, fieldNames[0]);
+		assertEquals("mBranches", fieldNames[1]);
+		assertEquals("mName", fieldNames[2]);
+	}
+	
+	public void testGeneratedAdapterFields() {
+		ModelAdapter<BlankModel> adapter = ModelAdapters.get(BlankModel.class);
+		
+		assertEquals(4, adapter.getFieldNames().length);
+		assertEquals(Model.PK, adapter.getFieldNames()[0]);
+		assertEquals(BlankModel.class, adapter.getDeclaringClass(1));
+	}
+	
+	public void testReflectionAdapter() {
+		try {
+			Class.forName(UntypedModel.class.getName() + ModelAdapters.SUFFIX);
+			fail();
+		} catch(ClassNotFoundException e) {
+			// no adapter has been generated
+		}
+		
+		ModelAdapter<UntypedModel> adapter = ModelAdapters.get(UntypedModel.class);
+		
+		assertEquals(2, adapter.getFieldNames().length);
+		assertEquals("mName", adapter.getFieldNames()[1]);
+		assertTrue(adapter.getField(new UntypedModel(), 1) instanceof CharField);
+	}
+	
+	public void testRoundTrip() {
+		Brand b = new Brand();
+		b.setName("Copcal");
+		b.save(getContext());
+		
+		assertEquals("Copcal", Brand.objects(getContext()).get(b.getId()).getName());
+	}
+	
+	@Override
+	public void tearDown() {
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.drop();
+	}
+}
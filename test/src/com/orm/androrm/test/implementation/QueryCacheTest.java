@@ -0,0 +1,161 @@
+package com.orm.androrm.test.implementation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.test.AndroidTestCase;
+
+import com.orm.androrm.DatabaseAdapter;
+import com.orm.androrm.Filter;
+import com.orm.androrm.Model;
+import com.orm.androrm.QueryCache;
+import com.orm.androrm.impl.Branch;
+import com.orm.androrm.impl.Brand;
+
+public class QueryCacheTest extends AndroidTestCase {
+
+	@Override
+	public void setUp() {
+		List<Class<? extends Model>> models = new ArrayList<Class<? extends Model>>();
+		models.add(Brand.class);
+		models.add(Branch.class);
+		
+		DatabaseAdapter.setDatabaseName("test_db");
+		
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.setModels(models);
+		
+		QueryCache.setSize(10);
+		QueryCache.resetStatistics();
+		
+		Brand b = new Brand();
+		b.setName("Copcal");
+		b.save(getContext());
+		
+		Branch branch = new Branch();
+		branch.setName("Cashbuild Pretoria");
+		branch.setBrand(b);
+		branch.save(getContext());
+	}
+	
+	public void testHit() {
+		assertEquals(1, Brand.objects(getContext()).all().toList().size());
+		assertEquals(0, QueryCache.getHits());
+		
+		List<Brand> brands = Brand.objects(getContext()).all().toList();
+		
+		assertEquals(1, QueryCache.getHits());
+		assertEquals(1, brands.size());
+		assertEquals("Copcal", brands.get(0).getName());
+	}
+	
+	public void testCount() {
+		assertEquals(1, Brand.objects(getContext()).count());
+		assertEquals(1, Brand.objects(getContext()).count());
+		assertEquals(1, QueryCache.getHits());
+		
+		Brand b = new Brand();
+		b.setName("Susi");
+		b.save(getContext());
+		
+		assertEquals(2, Brand.objects(getContext()).count());
+	}
+	
+	public void testInsertInvalidates() {
+		assertEquals(1, Brand.objects(getContext()).all().toList().size());
+		
+		Brand b = new Brand();
+		b.setName("Susi");
+		b.save(getContext());
+		
+		assertEquals(2, Brand.objects(getContext()).all().toList().size());
+		assertEquals(0, QueryCache.getHits());
+	}
+	
+	public void testDeleteInvalidates() {
+		assertEquals(1, Branch.objects(getContext()).all().toList().size());
+		
+		Branch.objects(getContext()).get(1).delete(getContext());
+		
+		assertEquals(0, Branch.objects(getContext()).all().toList().size());
+	}
+	
+	public void testJoinedTablesInvalidate() {
+		Filter filter = new Filter();
+		filter.contains("mBrand__mName", "Cop");
+		
+		assertEquals(1, Branch.objects(getContext()).filter(filter).count());
+		
+		Brand b = Brand.objects(getContext()).get(1);
+		b.setName("Susi");
+		b.save(getContext());
+		
+		assertEquals(0, Branch.objects(getContext()).filter(filter).count());
+	}
+	
+	public void testSubselectTablesInvalidate() {
+		Filter filter = new Filter();
+		filter.contains("mBranches__mName", "Pretoria");
+		
+		assertEquals(1, Brand.objects(getContext()).filter(filter).count());
+		
+		Branch branch = Branch.objects(getContext()).get(1);
+		branch.setName("Cashbuild Durban");
+		branch.save(getContext());
+		
+		assertEquals(0, Brand.objects(getContext()).filter(filter).count());
+	}
+	
+	public void testUnrelatedTablesKeepResults() {
+		assertEquals(1, Brand.objects(getContext()).all().toList().size());
+		
+		Branch branch = new Branch();
+		branch.setName("Cashbuild Johannesburg");
+		branch.save(getContext());
+		
+		assertEquals(1, Brand.objects(getContext()).all().toList().size());
+		assertEquals(1, QueryCache.getHits());
+	}
+	
+	public void testIterateBypassesCache() {
+		for(Brand b : Brand.objects(getContext()).all().iterate()) {
+			assertEquals("Copcal", b.getName());
+		}
+		
+		assertEquals(0, QueryCache.size());
+	}
+	
+	public void testMaxRows() {
+		QueryCache.setMaxRows(1);
+		
+		Brand b = new Brand();
+		b.setName("Susi");
+		b.save(getContext());
+		
+		assertEquals(2, Brand.objects(getContext()).all().toList().size());
+		assertEquals(0, QueryCache.size());
+		
+		assertEquals(1, Branch.objects(getContext()).all().toList().size());
+		assertEquals(1, QueryCache.size());
+	}
+	
+	public void testDisabled() {
+		QueryCache.setSize(0);
+		
+		Brand.objects(getContext()).all().toList();
+		Brand.objects(getContext()).all().toList();
+		
+		assertEquals(0, QueryCache.size());
+		assertEquals(0, QueryCache.getHits());
+	}
+	
+	@Override
+	public void tearDown() {
+		QueryCache.setSize(0);
+		QueryCache.setMaxRows(500);
+		QueryCache.resetStatistics();
+		
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.drop();
+	}
+}
@@ -0,0 +1,279 @@
+package com.orm.androrm.test.implementation;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import android.database.Cursor;
+import android.test.AndroidTestCase;
+
+import com.orm.androrm.DatabaseAdapter;
+import com.orm.androrm.Filter;
+import com.orm.androrm.Model;
+import com.orm.androrm.QueryBuilder;
+import com.orm.androrm.QueryCompiler;
+import com.orm.androrm.QuerySet;
+import com.orm.androrm.SelectStatement;
+import com.orm.androrm.impl.Branch;
+import com.orm.androrm.impl.Brand;
+import com.orm.androrm.impl.Car;
+import com.orm.androrm.impl.Person;
+import com.orm.androrm.impl.Product;
+import com.orm.androrm.impl.Supplier;
+
+public class QueryCompilerTest extends AndroidTestCase {
+
+	private Brand mCopcal;
+	private Branch mB1;
+	private Branch mB2;
+	private Supplier mS1;
+	
+	@Override
+	public void setUp() {
+		List<Class<? extends Model>> models = new ArrayList<Class<? extends Model>>();
+		models.add(Product.class);
+		models.add(Branch.class);
+		models.add(Supplier.class);
+		models.add(Brand.class);
+		models.add(Person.class);
+		models.add(Car.class);
+		
+		DatabaseAdapter.setDatabaseName("test_db");
+		
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.setModels(models);
+		
+		Brand copcal = new Brand();
+		copcal.setName("Copcal");
+		copcal.save(getContext());
+		mCopcal = copcal;
+		
+		Brand susi = new Brand();
+		susi.setName("Susi");
+		susi.save(getContext());
+		
+		Branch b1 = new Branch();
+		b1.setName("Cashbuild Pretoria");
+		b1.setBrand(copcal);
+		b1.save(getContext());
+		mB1 = b1;
+		
+		Branch b2 = new Branch();
+		b2.setName("Plumblink Pretoria");
+		b2.setBrand(copcal);
+		b2.save(getContext());
+		mB2 = b2;
+		
+		Branch b3 = new Branch();
+		b3.setName("Cashbuild Durban");
+		b3.setBrand(susi);
+		b3.save(getContext());
+		
+		Branch b4 = new Branch();
+		b4.setName("Orphan");
+		b4.save(getContext());
+		
+		Product p1 = new Product();
+		p1.setName("ofen");
+		p1.addBranch(b1);
+		p1.addBranch(b3);
+		p1.save(getContext());
+		
+		Product p2 = new Product();
+		p2.setName("sink");
+		p2.addBranch(b2);
+		p2.save(getContext());
+		
+		Product p3 = new Product();
+		p3.setName("tap");
+		p3.save(getContext());
+		
+		Supplier s1 = new Supplier();
+		s1.setName("ACME");
+		s1.setBrand(copcal);
+		s1.addProduct(p1);
+		s1.addBranch(b1);
+		s1.save(getContext());
+		mS1 = s1;
+		
+		Supplier s2 = new Supplier();
+		s2.setName("Globex");
+		s2.setBrand(susi);
+		s2.addProduct(p1);
+		s2.addProduct(p2);
+		s2.addBranch(b2);
+		s2.addBranch(b3);
+		s2.save(getContext());
+		
+		Supplier s3 = new Supplier();
+		s3.setName("Initech");
+		s3.save(getContext());
+	}
+	
+	private Set<Integer> getIds(SelectStatement query) {
+		Set<Integer> ids = new HashSet<Integer>();
+		
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.open();
+		
+		Cursor c = adapter.query(query);
+		int index = c.getColumnIndexOrThrow(Model.PK);
+		
+		while(c.moveToNext()) {
+			ids.add(c.getInt(index));
+		}
+		
+		c.close();
+		adapter.close();
+		
+		return ids;
+	}
+	
+	/**
+	 * Runs the filter with the {@link QueryCompiler} and the 
+	 * {@link QueryBuilder} and compares the ids of the results.
+	 */
+	private <T extends Model> void assertSameResults(Class<T> clazz, Filter filter, int expected) {
+		SelectStatement flat = QueryCompiler.buildQuery(clazz, filter.getRules());
+		
+		// no derived tables, only correlated subselects
+		assertFalse(flat.toString().contains("FROM (SELECT"));
+		assertFalse(flat.toString().contains("JOIN (SELECT"));
+		
+		Set<Integer> compiled = getIds(flat);
+		Set<Integer> built = getIds(QueryBuilder.buildQuery(clazz, filter.getRules()));
+		
+		assertEquals(expected, built.size());
+		assertEquals(built, compiled);
+	}
+	
+	public void testPlainField() {
+		Filter filter = new Filter();
+		filter.contains("mName", "Pretoria");
+		
+		assertSameResults(Branch.class, filter, 2);
+	}
+	
+	public void testForeignKey() {
+		Filter filter = new Filter();
+		filter.is("mBrand", mCopcal);
+		
+		assertSameResults(Branch.class, filter, 2);
+	}
+	
+	public void testSharedForeignKeyPath() {
+		Filter filter = new Filter();
+		filter.contains("mBrand__mName", "Cop");
+		filter.contains("mName", "Cash");
+		filter.is("mBrand__mName", "Copcal");
+		
+		SelectStatement query = QueryCompiler.buildQuery(Branch.class, filter.getRules());
+		
+		// the brand is only joined once
+		assertEquals(1, query.toString().split(" JOIN ").length - 1);
+		
+		assertSameResults(Branch.class, filter, 1);
+	}
+	
+	public void testForeignKeyToOneToMany() {
+		Filter filter = new Filter();
+		filter.contains("mBrand__mBranches__mName", "Plumb");
+		
+		assertSameResults(Branch.class, filter, 2);
+	}
+	
+	public void testManyToManyInBetween() {
+		Filter filter = new Filter();
+		filter.contains("mProducts__mBranches__mName", "Pretoria");
+		
+		assertSameResults(Supplier.class, filter, 2);
+	}
+	
+	public void testManyToManyLastField() {
+		List<Supplier> suppliers = new ArrayList<Supplier>();
+		suppliers.add(mS1);
+		
+		Filter filter = new Filter();
+		filter.in("mBranches__mSuppliers", suppliers);
+		
+		assertSameResults(Product.class, filter, 1);
+		
+		List<Branch> branches = new ArrayList<Branch>();
+		branches.add(mB1);
+		branches.add(mB2);
+		
+		filter = new Filter();
+		filter.in("mBranches", branches);
+		
+		assertSameResults(Product.class, filter, 2);
+	}
+	
+	public void testToManyUsesExists() {
+		Filter filter = new Filter();
+		filter.contains("mProducts__mBranches__mName", "Pretoria");
+		filter.contains("mBrand__mName", "Cop");
+		
+		String sql = QueryCompiler.buildQuery(Supplier.class, filter.getRules()).toString();
+		
+		assertTrue(sql.contains(" EXISTS (SELECT 1 FROM "));
+		assertFalse(sql.contains("DISTINCT"));
+		
+		assertSameResults(Supplier.class, filter, 1);
+	}
+	
+	public void testThreeRules() {
+		Filter filter = new Filter();
+		filter.is("mBranches__mBrand__mName", "Susi");
+		filter.contains("mBrand__mName", "Su");
+		filter.contains("mName", "Glob");
+		
+		assertSameResults(Supplier.class, filter, 1);
+	}
+	
+	public void testRulesOnDifferentRowsOfRelation() {
+		Filter filter = new Filter();
+		filter.contains("mBranches__mName", "Cash");
+		filter.contains("mBranches__mName", "Plumb");
+		
+		assertSameResults(Brand.class, filter, 1);
+		
+		filter = new Filter();
+		filter.contains("mBranches__mName", "Cash");
+		filter.contains("mBranches__mName", "Durban");
+		
+		assertSameResults(Brand.class, filter, 1);
+	}
+	
+	public void testOneToManyLastFieldComparesTargetIds() {
+		Person tom = new Person();
+		tom.setName("tom");
+		tom.save(getContext());
+		
+		Person peter = new Person();
+		peter.setName("peter");
+		peter.save(getContext());
+		
+		Car c = new Car();
+		c.addDriver(peter);
+		c.setName("Toyota");
+		c.save(getContext());
+		
+		List<Person> drivers = new ArrayList<Person>();
+		drivers.add(peter);
+		
+		Filter filter = new Filter();
+		filter.in("mDrivers", drivers);
+		
+		QuerySet<Car> cars = Car.objects(getContext()).filter(filter);
+		
+		assertEquals(1, cars.count());
+		assertTrue(cars.contains(c));
+	}
+	
+	@Override
+	public void tearDown() {
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.drop();
+	}
+}
@@ -2,12 +2,17 @@ package com.orm.androrm.test.implementation;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import android.test.AndroidTestCase;
 
+import com.orm.androrm.ConnectionManager;
 import com.orm.androrm.DatabaseAdapter;
+import com.orm.androrm.DoesNotExistException;
 import com.orm.androrm.Filter;
 import com.orm.androrm.Model;
+import com.orm.androrm.MultipleObjectsReturnedException;
+import com.orm.androrm.QueryIterator;
 import com.orm.androrm.QuerySet;
 import com.orm.androrm.impl.Branch;
 import com.orm.androrm.impl.Brand;
@@ -64,6 +69,39 @@ public class QuerySetTest extends AndroidTestCase {
 		assertEquals("Plumblink Pretoria", Branch.objects(getContext()).get(2).getName());
 	}
 	
+	public void testGetFilter() {
+		Filter filter = new Filter();
+		filter.contains("mName", "Plumb");
+		
+		assertEquals(2, Branch.objects(getContext()).get(filter).getId());
+	}
+	
+	public void testGetFilterDoesNotExist() {
+		Filter filter = new Filter();
+		filter.contains("mName", "Durban");
+		
+		try {
+			Branch.objects(getContext()).get(filter);
+			
+			fail();
+		} catch(DoesNotExistException e) {
+			
+		}
+	}
+	
+	public void testGetFilterMultipleObjectsReturned() {
+		Filter filter = new Filter();
+		filter.contains("mName", "Pretoria");
+		
+		try {
+			Branch.objects(getContext()).get(filter);
+			
+			fail();
+		} catch(MultipleObjectsReturnedException e) {
+			
+		}
+	}
+	
 	public void testFilter() {
 		Filter filter = new Filter();
 		filter.contains("mName", "Pretoria");
@@ -71,6 +109,42 @@ public class QuerySetTest extends AndroidTestCase {
 		assertEquals(2, Branch.objects(getContext()).filter(filter).count());
 	}
 	
+	public void testChainedFilters() {
+		Filter pretoria = new Filter();
+		pretoria.contains("mName", "Pretoria");
+		
+		Filter brand = new Filter();
+		brand.contains("mBrand__mName", "Cop");
+		
+		Filter plumb = new Filter();
+		plumb.contains("mName", "Plumb");
+		
+		QuerySet<Branch> branches = Branch.objects(getContext())
+				.filter(pretoria)
+				.filter(brand);
+		
+		assertEquals(2, branches.count());
+		
+		branches.filter(plumb);
+		
+		assertEquals(1, branches.count());
+		assertEquals("Plumblink Pretoria", branches.toList().get(0).getName());
+	}
+	
+	public void testOrderByJoinedFilter() {
+		Filter filter = new Filter();
+		filter.contains("mBrand__mName", "Cop");
+		
+		List<Branch> branches = Branch.objects(getContext())
+				.filter(filter)
+				.orderBy("-mName")
+				.toList();
+		
+		assertEquals(3, branches.size());
+		assertEquals("The third Branch", branches.get(0).getName());
+		assertEquals("Cashbuild Pretoria", branches.get(2).getName());
+	}
+	
 	public void testLimit() {
 		assertEquals(1, Branch.objects(getContext()).all().limit(1).count());
 		assertEquals(2, Branch.objects(getContext()).all().limit(1, 2).count());
@@ -89,6 +163,191 @@ public class QuerySetTest extends AndroidTestCase {
 		assertFalse(result.contains(notContained));
 	}
 	
+	public void testContainsAll() {
+		Filter filter = new Filter();
+		filter.contains("mName", "Pretoria");
+		
+		List<Branch> contained = new ArrayList<Branch>();
+		contained.add(Branch.objects(getContext()).get(1));
+		contained.add(Branch.objects(getContext()).get(2));
+		
+		List<Branch> notContained = new ArrayList<Branch>(contained);
+		notContained.add(Branch.objects(getContext()).get(3));
+		
+		QuerySet<Branch> result = Branch.objects(getContext()).filter(filter);
+		
+		assertTrue(result.containsAll(contained));
+		assertFalse(result.containsAll(notContained));
+		assertTrue(result.containsAll(new ArrayList<Branch>()));
+	}
+	
+	public void testContainsLimited() {
+		QuerySet<Branch> result = Branch.objects(getContext()).all().orderBy("mName").limit(1);
+		
+		assertTrue(result.contains(Branch.objects(getContext()).get(1)));
+		assertFalse(result.contains(Branch.objects(getContext()).get(2)));
+	}
+	
+	public void testContainsLoaded() {
+		Filter filter = new Filter();
+		filter.contains("mName", "Pretoria");
+		
+		QuerySet<Branch> result = Branch.objects(getContext()).filter(filter);
+		result.toList();
+		
+		Branch contained = Branch.objects(getContext()).get(1);
+		contained.delete(getContext());
+		
+		// answered from the loaded objects
+		assertTrue(result.contains(contained));
+		assertEquals(2, result.count());
+		assertTrue(result.exists());
+	}
+	
+	public void testExists() {
+		Filter filter = new Filter();
+		filter.contains("mName", "Pretoria");
+		
+		assertTrue(Branch.objects(getContext()).filter(filter).exists());
+		assertFalse(Branch.objects(getContext()).filter(filter).isEmpty());
+		
+		filter.is("mName", "Nowhere");
+		
+		assertFalse(Branch.objects(getContext()).filter(filter).exists());
+		assertTrue(Branch.objects(getContext()).filter(filter).isEmpty());
+	}
+	
+	public void testExistsDistinctWithOffset() {
+		QuerySet<Branch> result = Branch.objects(getContext()).all().distinct().limit(1, 2);
+		
+		assertTrue(result.exists());
+		assertFalse(result.isEmpty());
+		assertEquals(2, result.count());
+	}
+	
+	public void testCountCached() {
+		QuerySet<Branch> result = Branch.objects(getContext()).all();
+		
+		assertEquals(3, result.count());
+		
+		Branch.objects(getContext()).get(3).delete(getContext());
+		
+		assertEquals(3, result.count());
+		
+		Filter filter = new Filter();
+		filter.contains("mName", "Branch");
+		
+		// changing the query discards the cached count
+		assertEquals(0, result.filter(filter).count());
+	}
+	
+	public void testBulkCreate() {
+		List<Branch> branches = new ArrayList<Branch>();
+		
+		for(int i = 0; i < 100; i++) {
+			Branch b = new Branch();
+			b.setName("Bulk Branch " + i);
+			branches.add(b);
+		}
+		
+		assertTrue(Branch.objects(getContext()).bulkCreate(branches));
+		assertEquals(103, Branch.objects(getContext()).count());
+		
+		Branch last = branches.get(99);
+		assertEquals(103, last.getId());
+		assertEquals("Bulk Branch 99", Branch.objects(getContext()).get(last.getId()).getName());
+	}
+	
+	public void testAfter() {
+		List<Branch> branches = Branch.objects(getContext()).after(1).toList();
+		
+		assertEquals(2, branches.size());
+		assertEquals(2, branches.get(0).getId());
+		assertEquals(3, branches.get(1).getId());
+		
+		branches = Branch.objects(getContext()).after("-mId", "3").limit(1).toList();
+		
+		assertEquals(1, branches.size());
+		assertEquals(2, branches.get(0).getId());
+	}
+	
+	public void testPages() {
+		List<List<Branch>> pages = new ArrayList<List<Branch>>();
+		
+		for(List<Branch> page : Branch.objects(getContext()).all().pages(2)) {
+			pages.add(page);
+		}
+		
+		assertEquals(2, pages.size());
+		assertEquals(2, pages.get(0).size());
+		assertEquals(1, pages.get(1).size());
+		assertEquals(3, pages.get(1).get(0).getId());
+	}
+	
+	public void testFilteredPages() {
+		Filter filter = new Filter();
+		filter.contains("mName", "Pretoria");
+		
+		int count = 0;
+		
+		for(List<Branch> page : Branch.objects(getContext()).filter(filter).pages(1)) {
+			assertEquals(1, page.size());
+			assertTrue(page.get(0).getName().contains("Pretoria"));
+			count++;
+		}
+		
+		assertEquals(2, count);
+	}
+	
+	public void testValues() {
+		Filter filter = new Filter();
+		filter.contains("mName", "Pretoria");
+		
+		List<Map<String, Object>> values = Branch.objects(getContext()).filter(filter).values("mName");
+		
+		assertEquals(2, values.size());
+		assertEquals(1, values.get(0).size());
+		assertEquals("Cashbuild Pretoria", values.get(0).get("mName"));
+	}
+	
+	public void testValuesList() {
+		List<Object[]> values = Branch.objects(getContext()).all().valuesList("mId", "mName");
+		
+		assertEquals(3, values.size());
+		assertEquals(Integer.valueOf(3), values.get(2)[0]);
+		assertEquals("The third Branch", values.get(2)[1]);
+	}
+	
+	public void testIterate() {
+		Filter filter = new Filter();
+		filter.contains("mName", "Pretoria");
+		
+		QueryIterator<Branch> branches = Branch.objects(getContext()).filter(filter).iterate();
+		
+		int count = 0;
+		
+		for(Branch branch : branches) {
+			assertTrue(branch.getName().contains("Pretoria"));
+			count++;
+		}
+		
+		assertEquals(2, count);
+		assertFalse(branches.hasNext());
+		assertEquals(0, ConnectionManager.getReferenceCount("test_db"));
+	}
+	
+	public void testIterateClose() {
+		QueryIterator<Branch> branches = Branch.objects(getContext()).all().iterate();
+		
+		assertTrue(branches.hasNext());
+		assertEquals(1, ConnectionManager.getReferenceCount("test_db"));
+		
+		branches.close();
+		
+		assertFalse(branches.hasNext());
+		assertEquals(0, ConnectionManager.getReferenceCount("test_db"));
+	}
+	
 	public void tearDown() {
 		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
 		adapter.drop();
@@ -0,0 +1,86 @@
+package com.orm.androrm.test.implementation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.test.AndroidTestCase;
+
+import com.orm.androrm.DatabaseAdapter;
+import com.orm.androrm.Model;
+import com.orm.androrm.Session;
+import com.orm.androrm.impl.Branch;
+import com.orm.androrm.impl.Brand;
+
+public class SessionTest extends AndroidTestCase {
+
+	@Override
+	public void setUp() {
+		List<Class<? extends Model>> models = new ArrayList<Class<? extends Model>>();
+		models.add(Brand.class);
+		models.add(Branch.class);
+		
+		DatabaseAdapter.setDatabaseName("test_db");
+		
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.setModels(models);
+		
+		Brand b = new Brand();
+		b.setName("Copcal");
+		b.save(getContext());
+		
+		Branch branch = new Branch();
+		branch.setName("Cashbuild Pretoria");
+		branch.setBrand(b);
+		branch.save(getContext());
+	}
+	
+	public void testIdentity() {
+		Session session = Session.open();
+		
+		try {
+			Brand b1 = Brand.objects(getContext()).get(1);
+			Brand b2 = Brand.objects(getContext()).all().toList().get(0);
+			
+			assertSame(b1, b2);
+			assertSame(b1, Branch.objects(getContext()).get(1).getBrand(getContext()));
+		} finally {
+			session.close();
+		}
+		
+		assertNull(Session.getCurrent());
+		assertNotSame(Brand.objects(getContext()).get(1), Brand.objects(getContext()).get(1));
+	}
+	
+	public void testNestedSession() {
+		Session outer = Session.open();
+		Session inner = Session.open();
+		
+		assertSame(outer, inner);
+		
+		inner.close();
+		assertTrue(outer.isOpen());
+		
+		outer.close();
+		assertFalse(outer.isOpen());
+	}
+	
+	public void testDelete() {
+		Session session = Session.open();
+		
+		try {
+			Brand b = Brand.objects(getContext()).get(1);
+			assertEquals(1, session.size());
+			
+			b.delete(getContext());
+			assertEquals(0, session.size());
+		} finally {
+			session.close();
+		}
+	}
+	
+	@Override
+	public void tearDown() {
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.drop();
+	}
+}
@@ -0,0 +1,67 @@
+package com.orm.androrm.test.implementation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.test.AndroidTestCase;
+
+import com.orm.androrm.DatabaseAdapter;
+import com.orm.androrm.Filter;
+import com.orm.androrm.Model;
+import com.orm.androrm.StatementCache;
+import com.orm.androrm.impl.BlankModel;
+
+public class StatementCacheTest extends AndroidTestCase {
+
+	@Override
+	public void setUp() {
+		List<Class<? extends Model>> models = new ArrayList<Class<? extends Model>>();
+		models.add(BlankModel.class);
+		
+		DatabaseAdapter.setDatabaseName("test_db");
+		
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.setModels(models);
+	}
+	
+	public void testCountReusesStatement() {
+		BlankModel b = new BlankModel();
+		b.setName("foo");
+		b.save(getContext());
+		
+		StatementCache cache = DatabaseAdapter.getInstance(getContext()).getStatementCache();
+		cache.resetStatistics();
+		
+		Filter filter = new Filter();
+		filter.is("mName", "foo");
+		
+		assertEquals(1, Model.objects(getContext(), BlankModel.class).filter(filter).count());
+		
+		filter = new Filter();
+		filter.is("mName", "bar");
+		
+		assertEquals(0, Model.objects(getContext(), BlankModel.class).filter(filter).count());
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getHits());
+	}
+	
+	public void testClearedOnSchemaChange() {
+		BlankModel b = new BlankModel();
+		b.setName("foo");
+		b.save(getContext());
+		
+		assertEquals(1, Model.objects(getContext(), BlankModel.class).count());
+		
+		StatementCache cache = DatabaseAdapter.getInstance(getContext()).getStatementCache();
+		assertTrue(cache.size() > 0);
+		
+		DatabaseAdapter.getInstance(getContext()).drop();
+		assertEquals(0, cache.size());
+	}
+	
+	@Override
+	public void tearDown() {
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.drop();
+	}
+}
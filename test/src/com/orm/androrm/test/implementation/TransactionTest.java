@@ -0,0 +1,164 @@
+package com.orm.androrm.test.implementation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.test.AndroidTestCase;
+
+import com.orm.androrm.DatabaseAdapter;
+import com.orm.androrm.Model;
+import com.orm.androrm.TransactionCallback;
+import com.orm.androrm.UnitOfWork;
+import com.orm.androrm.impl.Brand;
+
+public class TransactionTest extends AndroidTestCase {
+
+	@Override
+	public void setUp() {
+		List<Class<? extends Model>> models = new ArrayList<Class<? extends Model>>();
+		models.add(Brand.class);
+		
+		DatabaseAdapter.setDatabaseName("test_db");
+		
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.setModels(models);
+	}
+	
+	private Brand createBrand(String name) {
+		Brand b = new Brand();
+		b.setName(name);
+		
+		return b;
+	}
+	
+	public void testCommit() {
+		boolean committed = DatabaseAdapter.getInstance(getContext()).runInTransaction(new TransactionCallback() {
+			
+			@Override
+			public boolean run(DatabaseAdapter adapter) {
+				createBrand("Copcal").save(getContext());
+				createBrand("Lumen").save(getContext());
+				
+				return true;
+			}
+		});
+		
+		assertTrue(committed);
+		assertEquals(2, Brand.objects(getContext()).count());
+	}
+	
+	public void testRollback() {
+		final Brand b = createBrand("Copcal");
+		
+		boolean committed = DatabaseAdapter.getInstance(getContext()).runInTransaction(new TransactionCallback() {
+			
+			@Override
+			public boolean run(DatabaseAdapter adapter) {
+				b.save(getContext());
+				
+				return false;
+			}
+		});
+		
+		assertFalse(committed);
+		assertEquals(0, Brand.objects(getContext()).count());
+	}
+	
+	public void testNestedRollback() {
+		final DatabaseAdapter adapter = DatabaseAdapter.getInstance(getContext());
+		
+		adapter.runInTransaction(new TransactionCallback() {
+			
+			@Override
+			public boolean run(DatabaseAdapter outer) {
+				createBrand("Copcal").save(getContext());
+				
+				adapter.runInTransaction(new TransactionCallback() {
+					
+					@Override
+					public boolean run(DatabaseAdapter inner) {
+						createBrand("Lumen").save(getContext());
+						
+						return false;
+					}
+				});
+				
+				return true;
+			}
+		});
+		
+		assertEquals(1, Brand.objects(getContext()).count());
+		assertEquals("Copcal", Brand.objects(getContext()).get(1).getName());
+	}
+	
+	public void testSavesMarkedCleanOnCommit() {
+		final Brand committed = createBrand("Copcal");
+		final Brand rolledBack = createBrand("Lumen");
+		final DatabaseAdapter adapter = DatabaseAdapter.getInstance(getContext());
+		
+		adapter.runInTransaction(new TransactionCallback() {
+			
+			@Override
+			public boolean run(DatabaseAdapter outer) {
+				committed.save(getContext());
+				
+				adapter.runInTransaction(new TransactionCallback() {
+					
+					@Override
+					public boolean run(DatabaseAdapter inner) {
+						rolledBack.save(getContext());
+						
+						return false;
+					}
+				});
+				
+				// the transaction might still be rolled back
+				assertTrue(committed.isDirty());
+				
+				return true;
+			}
+		});
+		
+		assertFalse(committed.isDirty());
+		assertTrue(rolledBack.isDirty());
+	}
+	
+	public void testUnitOfWork() {
+		Brand existing = createBrand("Copcal");
+		existing.save(getContext());
+		
+		UnitOfWork work = new UnitOfWork(getContext());
+		
+		for(int i = 0; i < 10; i++) {
+			work.save(createBrand("Brand " + i));
+		}
+		
+		work.delete(existing);
+		
+		assertEquals(11, work.size());
+		assertTrue(work.commit());
+		assertEquals(0, work.size());
+		
+		assertEquals(10, Brand.objects(getContext()).count());
+		assertEquals(0, existing.getId());
+	}
+	
+	public void testFailingUnitOfWork() {
+		Brand neverSaved = createBrand("Copcal");
+		Brand b = createBrand("Lumen");
+		
+		UnitOfWork work = new UnitOfWork(getContext());
+		work.save(b)
+			.delete(neverSaved);
+		
+		assertFalse(work.commit());
+		assertEquals(0, b.getId());
+		assertEquals(0, Brand.objects(getContext()).count());
+	}
+	
+	@Override
+	public void tearDown() {
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.drop();
+	}
+}
@@ -0,0 +1,69 @@
+package com.orm.androrm.test.implementation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.test.AndroidTestCase;
+
+import com.orm.androrm.ConnectionManager;
+import com.orm.androrm.DatabaseAdapter;
+import com.orm.androrm.DatabaseHelper;
+import com.orm.androrm.Model;
+import com.orm.androrm.TransactionCallback;
+import com.orm.androrm.impl.Brand;
+
+public class WriteAheadLogTest extends AndroidTestCase {
+
+	@Override
+	public void setUp() {
+		List<Class<? extends Model>> models = new ArrayList<Class<? extends Model>>();
+		models.add(Brand.class);
+		
+		DatabaseAdapter.setDatabaseName("test_db");
+		DatabaseHelper.setWriteAheadLogging(true);
+		ConnectionManager.close("test_db");
+		
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.setModels(models);
+	}
+	
+	private Brand createBrand(String name) {
+		Brand b = new Brand();
+		b.setName(name);
+		
+		return b;
+	}
+	
+	public void testReadAfterWrite() {
+		createBrand("Copcal").save(getContext());
+		createBrand("Lumen").save(getContext());
+		
+		assertEquals(2, Brand.objects(getContext()).count());
+		assertEquals(2, Brand.objects(getContext()).all().toList().size());
+	}
+	
+	public void testReadInTransaction() {
+		DatabaseAdapter.getInstance(getContext()).runInTransaction(new TransactionCallback() {
+			
+			@Override
+			public boolean run(DatabaseAdapter adapter) {
+				createBrand("Copcal").save(getContext());
+				
+				assertEquals(1, Brand.objects(getContext()).count());
+				
+				return false;
+			}
+		});
+		
+		assertEquals(0, Brand.objects(getContext()).count());
+	}
+	
+	@Override
+	public void tearDown() {
+		DatabaseAdapter adapter = new DatabaseAdapter(getContext());
+		adapter.drop();
+		
+		DatabaseHelper.setWriteAheadLogging(false);
+		ConnectionManager.close("test_db");
+	}
+}
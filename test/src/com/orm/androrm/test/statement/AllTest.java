@@ -10,6 +10,7 @@ public class AllTest extends TestSuite {
 		
 		suite.addTestSuite(AndStatementTest.class);
 		suite.addTestSuite(DeleteStatementTest.class);
+		suite.addTestSuite(ExistsStatementTest.class);
 		suite.addTestSuite(InStatementTest.class);
 		suite.addTestSuite(JoinStatementTest.class);
 		suite.addTestSuite(LikeStatementTest.class);
@@ -0,0 +1,46 @@
+package com.orm.androrm.test.statement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.test.AndroidTestCase;
+
+import com.orm.androrm.ExistsStatement;
+import com.orm.androrm.Statement;
+import com.orm.androrm.TableJoin;
+
+public class ExistsStatementTest extends AndroidTestCase {
+
+	public void testPlainStatement() {
+		TableJoin tables = new TableJoin("branch", "t1");
+		
+		ExistsStatement exists = new ExistsStatement(tables, "t1.mBrand=t0.mId", null);
+		assertEquals("EXISTS (SELECT 1 FROM `branch` AS t1 WHERE t1.mBrand=t0.mId)", exists.toString());
+		
+		exists = new ExistsStatement(tables, "t1.mBrand=t0.mId", new Statement("t1.mName", "foo"));
+		assertEquals("EXISTS (SELECT 1 FROM `branch` AS t1 WHERE t1.mBrand=t0.mId AND t1.mName = 'foo')", exists.toString());
+	}
+	
+	public void testJoinedTables() {
+		TableJoin tables = new TableJoin("branch_product", "t1");
+		tables.join("branch", "t2", "mId", "t1.branch");
+		
+		ExistsStatement exists = new ExistsStatement(tables, "t1.product=t0.mId", new Statement("t2.mName", "foo"));
+		
+		List<String> args = new ArrayList<String>();
+		
+		assertEquals("EXISTS (SELECT 1 FROM `branch_product` AS t1 "
+				+ "JOIN `branch` AS t2 ON t2.mId=t1.branch "
+				+ "WHERE t1.product=t0.mId AND t2.mName = ?)", exists.toSQL(args));
+		assertEquals(1, args.size());
+		assertEquals("foo", args.get(0));
+	}
+	
+	public void testGetKeys() {
+		TableJoin tables = new TableJoin("branch", "t1");
+		
+		assertTrue(new ExistsStatement(tables, "t1.mBrand=t0.mId", null).getKeys().isEmpty());
+		assertTrue(new ExistsStatement(tables, "t1.mBrand=t0.mId", new Statement("t1.mName", "foo"))
+				.getKeys().contains("t1.mName"));
+	}
+}
@@ -7,6 +7,9 @@ import java.util.Set;
 import android.test.AndroidTestCase;
 
 import com.orm.androrm.InStatement;
+import com.orm.androrm.SelectStatement;
+import com.orm.androrm.Statement;
+import com.orm.androrm.Where;
 
 public class InStatementTest extends AndroidTestCase {
 
@@ -24,6 +27,39 @@ public class InStatementTest extends AndroidTestCase {
 		assertEquals("foo IN ('1','2','3')", in.toString());
 	}
 	
+	public void testPlaceholders() {
+		List<Object> values = new ArrayList<Object>();
+		values.add(1);
+		values.add(2);
+		
+		List<String> args = new ArrayList<String>();
+		
+		InStatement in = new InStatement("foo", values);
+		assertEquals("foo IN (?,?)", in.toSQL(args));
+		assertEquals(2, args.size());
+		assertEquals("1", args.get(0));
+		assertEquals("2", args.get(1));
+	}
+	
+	public void testSubselect() {
+		Where where = new Where();
+		where.setStatement(new Statement("bar", 1));
+		
+		SelectStatement select = new SelectStatement();
+		select.from("table")
+			  .select("baz")
+			  .where(where);
+		
+		InStatement in = new InStatement("foo", select);
+		assertEquals("foo IN (SELECT baz FROM `table` WHERE bar = '1')", in.toString());
+		
+		List<String> args = new ArrayList<String>();
+		
+		assertEquals("foo IN (SELECT baz FROM `table` WHERE bar = ?)", in.toSQL(args));
+		assertEquals(1, args.size());
+		assertEquals("1", args.get(0));
+	}
+	
 	public void testGetKeys() {
 		List<Object> values = new ArrayList<Object>();
 		values.add(1);
@@ -1,5 +1,7 @@
 package com.orm.androrm.test.statement;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import android.test.AndroidTestCase;
@@ -13,6 +15,15 @@ public class LikeStatementTest extends AndroidTestCase {
 		assertEquals("foo LIKE '%bar%'", like.toString());
 	}
 	
+	public void testPlaceholder() {
+		List<String> args = new ArrayList<String>();
+		
+		assertEquals("foo LIKE ?", new LikeStatement("foo", "bar").toSQL(args));
+		assertEquals("foo LIKE ?", new LikeStatement("^foo", "bar").toSQL(args));
+		assertEquals("%bar%", args.get(0));
+		assertEquals("bar%", args.get(1));
+	}
+	
 	public void testMatchBeginning() {
 		LikeStatement like = new LikeStatement("^foo", "bar");
 		assertEquals("foo LIKE 'bar%'", like.toString());
@@ -29,4 +29,10 @@ public class OrderByTest extends AndroidTestCase {
 		
 		assertEquals(" ORDER BY UPPER(col1) ASC, UPPER(col2) DESC, UPPER(col3) ASC", o.toString());
 	}
+	
+	public void testCaseSensitive() {
+		OrderBy o = new OrderBy(false, "col1", "-col2");
+		
+		assertEquals(" ORDER BY col1 ASC, col2 DESC", o.toString());
+	}
 }
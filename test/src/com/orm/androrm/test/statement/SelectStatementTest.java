@@ -1,10 +1,14 @@
 package com.orm.androrm.test.statement;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import android.test.AndroidTestCase;
 
 import com.orm.androrm.JoinStatement;
 import com.orm.androrm.Limit;
 import com.orm.androrm.Model;
+import com.orm.androrm.OrStatement;
 import com.orm.androrm.SelectStatement;
 import com.orm.androrm.Statement;
 import com.orm.androrm.Where;
@@ -64,6 +68,29 @@ public class SelectStatementTest extends AndroidTestCase {
 		assertEquals("SELECT * FROM `table` WHERE foo = 'bar'", mSelect.toString());
 	}
 	
+	public void testWherePlaceholders() {
+		Where inner = new Where();
+		inner.setStatement(new Statement("foo", "bar"));
+		
+		SelectStatement select = new SelectStatement();
+		select.from("another_table")
+			  .where(inner);
+		
+		Where outer = new Where();
+		outer.setStatement(new OrStatement(new Statement("a", 1), new Statement("b", 2)));
+		
+		mSelect.from(select)
+			   .where(outer);
+		
+		List<String> args = new ArrayList<String>();
+		
+		assertEquals("SELECT * FROM (SELECT * FROM `another_table` WHERE foo = ?) WHERE (a = ? OR b = ?)", mSelect.toSQL(args));
+		assertEquals(3, args.size());
+		assertEquals("bar", args.get(0));
+		assertEquals("1", args.get(1));
+		assertEquals("2", args.get(2));
+	}
+	
 	public void testOrderBy() {
 		mSelect.orderBy("column");
 		
@@ -1,5 +1,7 @@
 package com.orm.androrm.test.statement;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import android.test.AndroidTestCase;
@@ -13,6 +15,15 @@ public class StatementTest extends AndroidTestCase {
 		assertEquals("foo = 'bar'", stmt.toString());
 	}
 	
+	public void testPlaceholder() {
+		Statement stmt = new Statement("foo", "bar");
+		List<String> args = new ArrayList<String>();
+		
+		assertEquals("foo = ?", stmt.toSQL(args));
+		assertEquals(1, args.size());
+		assertEquals("bar", args.get(0));
+	}
+	
 	public void testGetKeys() {
 		Statement stmt = new Statement("foo", "bar");
 		